@@ -0,0 +1,67 @@
+package org.jabref.gui.entryeditor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Assigns serial numbers to the authors of recommendations and counts how often each of them occurs.
+ * <p>
+ * Authors are identified by their normalized {@link AuthorName}, so that spelling variants count as the same author.
+ * Serial numbers start at 1 and are assigned in order of first occurrence. Besides the author to number map, a
+ * reverse index from number to author is kept, so that both directions are answered in constant time.
+ */
+public class AuthorFrequencies {
+
+    private final Map<AuthorName, Integer> ids = new HashMap<>();
+    private final List<AuthorName> names = new ArrayList<>();
+    private int[] frequencies = new int[16];
+
+    /**
+     * Counts one more occurrence of the given author.
+     * @return Serial number of the author
+     */
+    public int add(AuthorName author) {
+        Integer id = ids.get(author);
+        if (id == null) {
+            names.add(author);
+            id = names.size();
+            ids.put(author, id);
+            if (id >= frequencies.length) {
+                frequencies = Arrays.copyOf(frequencies, frequencies.length * 2);
+            }
+        }
+        frequencies[id]++;
+        return id;
+    }
+
+    /**
+     * @return Serial number of the given author, or 0 if the author is unknown
+     */
+    public int getId(AuthorName author) {
+        return ids.getOrDefault(author, 0);
+    }
+
+    /**
+     * @return Name of the author with the given serial number as first seen, or an empty string if there is none
+     */
+    public String getName(int id) {
+        return ((id >= 1) && (id <= names.size())) ? names.get(id - 1).getDisplayName() : "";
+    }
+
+    /**
+     * @return Number of occurrences of the author with the given serial number
+     */
+    public int getFrequency(int id) {
+        return ((id >= 1) && (id <= names.size())) ? frequencies[id] : 0;
+    }
+
+    /**
+     * @return Number of distinct authors
+     */
+    public int size() {
+        return names.size();
+    }
+}
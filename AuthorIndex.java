@@ -0,0 +1,330 @@
+package org.jabref.gui.entryeditor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.jabref.model.database.BibDatabase;
+import org.jabref.model.database.event.EntryAddedEvent;
+import org.jabref.model.database.event.EntryRemovedEvent;
+import org.jabref.model.entry.BibEntry;
+import org.jabref.model.entry.FieldName;
+import org.jabref.model.entry.event.EntryChangedEvent;
+import org.jabref.model.entry.event.FieldChangedEvent;
+
+import com.google.common.eventbus.Subscribe;
+
+/**
+ * Index of the authors of the open database: which entries each author wrote and with whom.
+ * <p>
+ * Author fields are split into individual {@link AuthorName}s, and every distinct author is interned to a dense id.
+ * Entries of an author and co-authors of an author, weighted by the number of shared entries, are kept in primitive
+ * int arrays. Like {@link LocalRecommendationIndex}, the index follows the changes of the database by marking entries
+ * as dirty and applying them right before the next query. Co-authorship is not recorded for entries with more than
+ * {@link #MAX_COAUTHORED_AUTHORS} authors, as these would add a quadratic number of pairs.
+ */
+public class AuthorIndex {
+
+    public static final int MAX_COAUTHORED_AUTHORS = 50;
+
+    private static final int[] NO_IDS = new int[0];
+
+    private final BibDatabase database;
+
+    // Authors by id
+    private final Map<AuthorName, Integer> authorIds = new HashMap<>();
+    private final List<AuthorName> authors = new ArrayList<>();
+    private int[][] entriesOfAuthor = new int[64][];
+    private int[] entryCounts = new int[64];
+    private int[][] coAuthors = new int[64][];
+    private int[][] coAuthorWeights = new int[64][];
+    private int[] coAuthorCounts = new int[64];
+
+    // Entries by id. Ids of removed entries are reused.
+    private final List<BibEntry> entries = new ArrayList<>();
+    private final Map<BibEntry, Integer> entryIds = new IdentityHashMap<>();
+    private int[][] authorsOfEntry = new int[1024][];
+    private int[] freeEntryIds = new int[16];
+    private int freeEntryCount;
+
+    private final Set<BibEntry> pendingUpdates = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Set<BibEntry> pendingRemovals = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    public AuthorIndex(BibDatabase database) {
+        this.database = database;
+        synchronized (pendingUpdates) {
+            pendingUpdates.addAll(database.getEntries());
+        }
+        database.registerListener(this);
+    }
+
+    /**
+     * Stops following the changes of the database.
+     */
+    public void close() {
+        database.unregisterListener(this);
+    }
+
+    @Subscribe
+    public void listen(EntryAddedEvent event) {
+        markDirty(event.getBibEntry());
+    }
+
+    @Subscribe
+    public void listen(EntryChangedEvent event) {
+        if ((event instanceof FieldChangedEvent) && !FieldName.AUTHOR.equals(((FieldChangedEvent) event).getFieldName())) {
+            return;
+        }
+        markDirty(event.getBibEntry());
+    }
+
+    @Subscribe
+    public void listen(EntryRemovedEvent event) {
+        synchronized (pendingUpdates) {
+            pendingUpdates.remove(event.getBibEntry());
+            pendingRemovals.add(event.getBibEntry());
+        }
+    }
+
+    private void markDirty(BibEntry entry) {
+        synchronized (pendingUpdates) {
+            pendingRemovals.remove(entry);
+            pendingUpdates.add(entry);
+        }
+    }
+
+    /**
+     * Brings the index up to date with the database. This is done implicitly by all queries, but may be called
+     * beforehand on a background thread to avoid paying for the initial indexing in the first query.
+     */
+    public synchronized void update() {
+        List<BibEntry> updates;
+        List<BibEntry> removals;
+        synchronized (pendingUpdates) {
+            updates = new ArrayList<>(pendingUpdates);
+            removals = new ArrayList<>(pendingRemovals);
+            pendingUpdates.clear();
+            pendingRemovals.clear();
+        }
+
+        for (BibEntry entry : removals) {
+            remove(entry);
+        }
+        for (BibEntry entry : updates) {
+            remove(entry);
+            add(entry);
+        }
+    }
+
+    /**
+     * @return Entries of the database written by the given author, in no particular order
+     */
+    public synchronized List<BibEntry> getEntries(AuthorName author) {
+        update();
+        int authorId = authorIds.getOrDefault(author, -1);
+        if (authorId < 0) {
+            return Collections.emptyList();
+        }
+        List<BibEntry> result = new ArrayList<>(entryCounts[authorId]);
+        for (int i = 0; i < entryCounts[authorId]; i++) {
+            result.add(entries.get(entriesOfAuthor[authorId][i]));
+        }
+        return result;
+    }
+
+    /**
+     * @return Number of entries of the database written by the given author
+     */
+    public synchronized int getEntryCount(AuthorName author) {
+        update();
+        int authorId = authorIds.getOrDefault(author, -1);
+        return authorId < 0 ? 0 : entryCounts[authorId];
+    }
+
+    /**
+     * Finds the authors the given author has written most entries with.
+     * @param limit Maximal number of returned co-authors
+     * @return Co-authors, the one with the most shared entries first
+     */
+    public synchronized List<AuthorName> getCoAuthors(AuthorName author, int limit) {
+        update();
+        int authorId = authorIds.getOrDefault(author, -1);
+        if (authorId < 0) {
+            return Collections.emptyList();
+        }
+
+        int count = coAuthorCounts[authorId];
+        int[] neighbours = coAuthors[authorId];
+        int[] weights = coAuthorWeights[authorId];
+        // Sort by weight descending, ties by id, i.e. by first occurrence
+        long[] order = new long[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = ((long) (Integer.MAX_VALUE - weights[i]) << 32) | neighbours[i];
+        }
+        Arrays.sort(order);
+
+        List<AuthorName> result = new ArrayList<>(Math.min(limit, count));
+        for (int i = 0; (i < count) && (i < limit); i++) {
+            result.add(authors.get((int) order[i]));
+        }
+        return result;
+    }
+
+    private void add(BibEntry entry) {
+        int entryId;
+        if (freeEntryCount > 0) {
+            entryId = freeEntryIds[--freeEntryCount];
+            entries.set(entryId, entry);
+        } else {
+            entryId = entries.size();
+            entries.add(entry);
+            if (entryId == authorsOfEntry.length) {
+                authorsOfEntry = Arrays.copyOf(authorsOfEntry, entryId * 2);
+            }
+        }
+        entryIds.put(entry, entryId);
+
+        List<AuthorName> names = AuthorName.parse(entry.getField(FieldName.AUTHOR).orElse(""));
+        int[] ids = new int[names.size()];
+        int count = 0;
+        for (AuthorName name : names) {
+            int authorId = intern(name);
+            if (!contains(ids, count, authorId)) {
+                ids[count++] = authorId;
+            }
+        }
+        ids = count == ids.length ? ids : Arrays.copyOf(ids, count);
+        authorsOfEntry[entryId] = ids;
+
+        for (int authorId : ids) {
+            entriesOfAuthor[authorId] = append(entriesOfAuthor[authorId], entryCounts[authorId], entryId);
+            entryCounts[authorId]++;
+        }
+        if (ids.length <= MAX_COAUTHORED_AUTHORS) {
+            for (int a : ids) {
+                for (int b : ids) {
+                    if (a != b) {
+                        addCoAuthor(a, b);
+                    }
+                }
+            }
+        }
+    }
+
+    private void remove(BibEntry entry) {
+        Integer entryId = entryIds.remove(entry);
+        if (entryId == null) {
+            return;
+        }
+
+        int[] ids = authorsOfEntry[entryId];
+        for (int authorId : ids) {
+            entryCounts[authorId] = removeValue(entriesOfAuthor[authorId], entryCounts[authorId], entryId);
+        }
+        if (ids.length <= MAX_COAUTHORED_AUTHORS) {
+            for (int a : ids) {
+                for (int b : ids) {
+                    if (a != b) {
+                        removeCoAuthor(a, b);
+                    }
+                }
+            }
+        }
+
+        authorsOfEntry[entryId] = null;
+        entries.set(entryId, null);
+        freeEntryIds = append(freeEntryIds, freeEntryCount, entryId);
+        freeEntryCount++;
+    }
+
+    /**
+     * @return Id of the given author, assigning the next free one if the author is new
+     */
+    private int intern(AuthorName name) {
+        Integer id = authorIds.get(name);
+        if (id != null) {
+            return id;
+        }
+
+        int authorId = authors.size();
+        authors.add(name);
+        authorIds.put(name, authorId);
+        if (authorId == entryCounts.length) {
+            int capacity = authorId * 2;
+            entriesOfAuthor = Arrays.copyOf(entriesOfAuthor, capacity);
+            entryCounts = Arrays.copyOf(entryCounts, capacity);
+            coAuthors = Arrays.copyOf(coAuthors, capacity);
+            coAuthorWeights = Arrays.copyOf(coAuthorWeights, capacity);
+            coAuthorCounts = Arrays.copyOf(coAuthorCounts, capacity);
+        }
+        entriesOfAuthor[authorId] = NO_IDS;
+        coAuthors[authorId] = NO_IDS;
+        coAuthorWeights[authorId] = NO_IDS;
+        return authorId;
+    }
+
+    private void addCoAuthor(int author, int coAuthor) {
+        int count = coAuthorCounts[author];
+        int index = indexOf(coAuthors[author], count, coAuthor);
+        if (index >= 0) {
+            coAuthorWeights[author][index]++;
+            return;
+        }
+        coAuthors[author] = append(coAuthors[author], count, coAuthor);
+        coAuthorWeights[author] = append(coAuthorWeights[author], count, 1);
+        coAuthorCounts[author]++;
+    }
+
+    private void removeCoAuthor(int author, int coAuthor) {
+        int count = coAuthorCounts[author];
+        int index = indexOf(coAuthors[author], count, coAuthor);
+        if ((index < 0) || (--coAuthorWeights[author][index] > 0)) {
+            return;
+        }
+        // Move the last co-author into the gap
+        coAuthors[author][index] = coAuthors[author][count - 1];
+        coAuthorWeights[author][index] = coAuthorWeights[author][count - 1];
+        coAuthorCounts[author]--;
+    }
+
+    /**
+     * Sets the value at the given size, growing the array if necessary
+     * @return The given array or a grown copy of it
+     */
+    private static int[] append(int[] array, int size, int value) {
+        int[] result = size < array.length ? array : Arrays.copyOf(array, Math.max(4, size * 2));
+        result[size] = value;
+        return result;
+    }
+
+    /**
+     * Removes the value by moving the last value into its place
+     * @return The new size
+     */
+    private static int removeValue(int[] array, int size, int value) {
+        int index = indexOf(array, size, value);
+        if (index < 0) {
+            return size;
+        }
+        array[index] = array[size - 1];
+        return size - 1;
+    }
+
+    private static int indexOf(int[] array, int size, int value) {
+        for (int i = 0; i < size; i++) {
+            if (array[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean contains(int[] array, int size, int value) {
+        return indexOf(array, size, value) >= 0;
+    }
+}
@@ -0,0 +1,267 @@
+package org.jabref.gui.entryeditor;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URISyntaxException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.http.client.utils.URIBuilder;
+
+/**
+ * Looks up papers of authors on Google Scholar.
+ * <p>
+ * The authors of a paper are looked up in parallel with a bounded number of concurrent requests. Concurrent lookups of
+ * the same author share a single request, and results are cached per normalized author name. Expired results are
+ * returned right away while they are refreshed in the background. Requests to Scholar are rate limited to stay below
+ * its throttling limits, and guarded by a {@link CircuitBreaker}, so that lookups fail fast while Scholar refuses them.
+ */
+public class AuthorLookupService {
+
+    public static final int DEFAULT_CONCURRENCY = 4;
+    public static final Duration DEFAULT_TIME_TO_LIVE = Duration.ofHours(1);
+    public static final double DEFAULT_REQUESTS_PER_SECOND = 1;
+    public static final int DEFAULT_BURST = 4;
+
+    /**
+     * Maximal number of papers returned for one lookup, shared between all authors of the lookup
+     */
+    static final int MAX_RESULTS = 10;
+
+    /**
+     * Maximal number of authors whose papers are cached, so that memory stays bounded during long batch runs
+     */
+    static final int MAX_CACHED_AUTHORS = 1024;
+
+    private static final String SCHOLAR_SEARCH_PATH = "/scholar";
+    private static final ScholarResultParser RESULT_PARSER = new ScholarResultParser();
+
+    private final RecommendationHttpClient httpClient;
+    private final String scholarUrl;
+    private final ThreadPoolExecutor executor;
+    private final CircuitBreaker circuitBreaker = CircuitBreaker.createDefault("Google Scholar");
+    private final TokenBucketRateLimiter rateLimiter = new TokenBucketRateLimiter(DEFAULT_REQUESTS_PER_SECOND, DEFAULT_BURST);
+    private final long timeToLiveMillis;
+    private final Map<String, CompletableFuture<Map<String, String>>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, CachedPapers> cache = new ConcurrentHashMap<>();
+
+    /**
+     * @param httpClient  client used to query Scholar
+     * @param concurrency maximal number of Scholar requests running at the same time
+     * @param timeToLive  time after which the papers of an author are looked up again
+     */
+    public AuthorLookupService(RecommendationHttpClient httpClient, int concurrency, Duration timeToLive) {
+        this(httpClient, RecommendationEndpoints.DEFAULT_SCHOLAR_URL, concurrency, timeToLive);
+    }
+
+    /**
+     * @param httpClient  client used to query Scholar
+     * @param scholarUrl  base URL of Google Scholar, see {@link RecommendationEndpoints}
+     * @param concurrency maximal number of Scholar requests running at the same time
+     * @param timeToLive  time after which the papers of an author are looked up again
+     */
+    public AuthorLookupService(RecommendationHttpClient httpClient, String scholarUrl, int concurrency, Duration timeToLive) {
+        this.httpClient = httpClient;
+        this.scholarUrl = scholarUrl;
+        this.executor = new ThreadPoolExecutor(concurrency, concurrency, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), new LookupThreadFactory());
+        this.timeToLiveMillis = timeToLive.toMillis();
+    }
+
+    /**
+     * Looks up the papers of all authors in the given author string.
+     * @param author Names of the authors whose articles are to be retrieved, separated by ";"
+     * @return Future of a map where key is Article Name and Value is URL
+     */
+    public CompletableFuture<Map<String, String>> lookup(String author) {
+        List<String> authors = new ArrayList<>();
+        for (String name : author.split(";")) {
+            String trimmed = name.trim().replaceAll("\\s+", " ");
+            if (!trimmed.isEmpty()) {
+                authors.add(trimmed);
+            }
+        }
+        if (authors.isEmpty()) {
+            return CompletableFuture.completedFuture(Collections.emptyMap());
+        }
+
+        List<CompletableFuture<Map<String, String>>> lookups = new ArrayList<>(authors.size());
+        for (String name : authors) {
+            lookups.add(lookupAuthor(name));
+        }
+
+        int papersPerAuthor = Math.max(1, MAX_RESULTS / authors.size());
+        return CompletableFuture.allOf(lookups.toArray(new CompletableFuture[0]))
+                                .thenApply(ignored -> {
+                                    Map<String, String> papers = new LinkedHashMap<>();
+                                    for (CompletableFuture<Map<String, String>> lookup : lookups) {
+                                        lookup.join().entrySet().stream()
+                                              .limit(papersPerAuthor)
+                                              .forEach(paper -> papers.putIfAbsent(paper.getKey(), paper.getValue()));
+                                    }
+                                    return papers;
+                                });
+    }
+
+    /**
+     * Looks up the papers of a single author, answering from the cache or joining an already running lookup if possible.
+     */
+    private CompletableFuture<Map<String, String>> lookupAuthor(String name) {
+        String key = name.toLowerCase(Locale.ROOT);
+
+        CachedPapers cached = cache.get(key);
+        if (cached != null) {
+            RelatedArticlesMetrics.getDefault().increment(RelatedArticlesMetrics.Counter.AUTHOR_LOOKUP_CACHE_HITS);
+            if (cached.isExpired(System.currentTimeMillis(), timeToLiveMillis)) {
+                refresh(name, key);
+            }
+            return CompletableFuture.completedFuture(cached.getPapers());
+        }
+        RelatedArticlesMetrics.getDefault().increment(RelatedArticlesMetrics.Counter.AUTHOR_LOOKUP_CACHE_MISSES);
+        return refresh(name, key);
+    }
+
+    /**
+     * Searches the papers of the given author on Scholar and caches them, unless a search is already running
+     */
+    private CompletableFuture<Map<String, String>> refresh(String name, String key) {
+        CompletableFuture<Map<String, String>> lookup = new CompletableFuture<>();
+        CompletableFuture<Map<String, String>> running = inFlight.putIfAbsent(key, lookup);
+        if (running != null) {
+            return running;
+        }
+
+        executor.execute(() -> {
+            try {
+                Map<String, String> papers = Collections.unmodifiableMap(searchPapersByAuthor(name));
+                evictIfFull();
+                cache.put(key, new CachedPapers(System.currentTimeMillis(), papers));
+                inFlight.remove(key, lookup);
+                lookup.complete(papers);
+            } catch (Exception e) {
+                RelatedArticlesMetrics.getDefault().increment(RelatedArticlesMetrics.Counter.FETCH_FAILURES);
+                inFlight.remove(key, lookup);
+                lookup.completeExceptionally(e);
+            }
+        });
+        return lookup;
+    }
+
+    /**
+     * Makes room for another author by removing expired entries, or an arbitrary one if none has expired
+     */
+    private void evictIfFull() {
+        if (cache.size() < MAX_CACHED_AUTHORS) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        cache.values().removeIf(cached -> cached.isExpired(now, timeToLiveMillis));
+        Iterator<String> keys = cache.keySet().iterator();
+        while ((cache.size() >= MAX_CACHED_AUTHORS) && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+
+    /**
+     * Retrieves the articles of the given author from Google Scholar
+     * @param author Name of the author of whose articles are to be retrieved
+     * @return Map where key is Article Name and Value is URL
+     */
+    private Map<String, String> searchPapersByAuthor(String author) throws IOException {
+        URIBuilder uriBuilder;
+        try {
+            uriBuilder = new URIBuilder(scholarUrl + SCHOLAR_SEARCH_PATH);
+        } catch (URISyntaxException e) {
+            throw new IOException("Invalid Scholar URL", e);
+        }
+        uriBuilder.addParameter("as_q", "");
+        uriBuilder.addParameter("as_epq", author);
+        uriBuilder.addParameter("as_occt", "author");
+
+        String url = uriBuilder.toString();
+        try {
+            rateLimiter.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for Scholar");
+        }
+        String html;
+        try (RelatedArticlesMetrics.Timing timing = RelatedArticlesMetrics.getDefault().start(RelatedArticlesMetrics.Phase.FETCH)) {
+            html = httpClient.get(url, circuitBreaker, httpClient.getMaxRetries());
+        }
+
+        Map<String, String> papers = new LinkedHashMap<>();
+        try (RelatedArticlesMetrics.Timing timing = RelatedArticlesMetrics.getDefault().start(RelatedArticlesMetrics.Phase.PARSE)) {
+            for (ScholarResult result : RESULT_PARSER.parse(html, url, MAX_RESULTS)) {
+                papers.putIfAbsent(result.getTitle(), result.getUrl());
+            }
+        }
+        return papers;
+    }
+
+    /**
+     * @return The circuit breaker guarding the requests to Scholar
+     */
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    /**
+     * @return Number of author lookups waiting for a free request slot
+     */
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * Stops all running lookups. The service cannot be used afterwards.
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static class CachedPapers {
+
+        private final long createdAt;
+        private final Map<String, String> papers;
+
+        CachedPapers(long createdAt, Map<String, String> papers) {
+            this.createdAt = createdAt;
+            this.papers = papers;
+        }
+
+        Map<String, String> getPapers() {
+            return papers;
+        }
+
+        boolean isExpired(long now, long timeToLiveMillis) {
+            return now - createdAt > timeToLiveMillis;
+        }
+    }
+
+    private static class LookupThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "AuthorLookup-" + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
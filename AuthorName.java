@@ -0,0 +1,128 @@
+package org.jabref.gui.entryeditor;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+import org.jabref.model.entry.Author;
+import org.jabref.model.entry.AuthorList;
+import org.jabref.model.strings.LatexToUnicodeAdapter;
+
+/**
+ * A single author parsed from an author field, together with a normalized key identifying the author.
+ * <p>
+ * The key consists of the last name, including a "von" part, and the first initial. It is lower case and free of
+ * LaTeX commands and diacritics, thus "M{\"u}ller, Hans", "Hans Müller" and "H. Muller" share the same key. Two
+ * instances are equal if their keys are equal.
+ */
+public class AuthorName {
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_LETTERS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern MULTIPLE_WORDS = Pattern.compile("\\S\\s+\\S");
+
+    private final String key;
+    private final String displayName;
+
+    private AuthorName(String key, String displayName) {
+        this.key = key;
+        this.displayName = displayName;
+    }
+
+    /**
+     * Splits an author field like "Beel, Joeran and Gipp, Bela" into its authors. Authors without a last name, e.g.
+     * "others", are skipped.
+     * @return Authors in order of the field
+     */
+    public static List<AuthorName> parse(String authorField) {
+        if (authorField.trim().isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<Author> authors = AuthorList.parse(authorField).getAuthors();
+        List<AuthorName> names = new ArrayList<>(authors.size());
+        for (Author author : authors) {
+            String last = normalize(author.getLastOnly());
+            if (last.isEmpty() || "others".equals(last)) {
+                continue;
+            }
+            String first = normalize(author.getFirst().orElse(""));
+            String key = first.isEmpty() ? last : last + ' ' + first.charAt(0);
+            names.add(new AuthorName(key, LatexToUnicodeAdapter.format(author.getFirstLast(true)).trim()));
+        }
+        return names;
+    }
+
+    /**
+     * Splits the authors of a recommendation into its authors. Besides author fields of library entries, these may be
+     * comma separated lists of names like "Joeran Beel, Bela Gipp" as delivered by Mr. DLib. A field is taken as such a
+     * list if it has several comma separated parts and every part consists of several words, which is rarely the case
+     * for the "Last, First" form of a single author.
+     * @return Authors in order of the field
+     */
+    public static List<AuthorName> parseRecommendedAuthors(String authors) {
+        if (authors.contains(" and ")) {
+            return parse(authors);
+        }
+
+        String[] parts = authors.split(",");
+        if (parts.length < 2) {
+            return parse(authors);
+        }
+        for (String part : parts) {
+            if (!MULTIPLE_WORDS.matcher(part.trim()).find()) {
+                return parse(authors);
+            }
+        }
+
+        List<AuthorName> names = new ArrayList<>(parts.length);
+        for (String part : parts) {
+            names.addAll(parse(part));
+        }
+        return names;
+    }
+
+    private static String normalize(String name) {
+        String unicode = Normalizer.normalize(LatexToUnicodeAdapter.format(name), Normalizer.Form.NFD);
+        String letters = NON_LETTERS.matcher(COMBINING_MARKS.matcher(unicode).replaceAll("")).replaceAll(" ");
+        return letters.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * @return Normalized key, e.g. "muller h"
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * @return Name as shown to the user, e.g. "H. Müller"
+     */
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if ((o == null) || (getClass() != o.getClass())) {
+            return false;
+        }
+        return key.equals(((AuthorName) o).key);
+    }
+
+    @Override
+    public int hashCode() {
+        return key.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return displayName;
+    }
+}
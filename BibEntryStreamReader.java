@@ -0,0 +1,224 @@
+package org.jabref.gui.entryeditor;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Locale;
+import java.util.Optional;
+
+import org.jabref.model.entry.BibEntry;
+
+/**
+ * Reads the entries of a .bib file one after the other, keeping only the current entry in memory.
+ * <p>
+ * In contrast to the full BibTeX parser, which reads the whole library into a database, this reader is meant for
+ * processing libraries of any size in a single pass. It understands braced, quoted and numeric field values as well
+ * as concatenations with {@code #}, but does not expand {@code @String} macros: references to them are kept as is.
+ * {@code @Comment}, {@code @Preamble} and {@code @String} blocks and text between entries are skipped.
+ */
+public class BibEntryStreamReader implements Closeable {
+
+    private static final int END = -1;
+    private static final int NO_LOOKAHEAD = -2;
+
+    private final Reader reader;
+    private final StringBuilder buffer = new StringBuilder(256);
+    private int lookahead = NO_LOOKAHEAD;
+
+    /**
+     * @param reader Source of the .bib file. Should be buffered, as it is read character by character.
+     */
+    public BibEntryStreamReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * @return The next entry of the file, or an empty optional at the end of the file
+     * @throws IOException if reading fails or the file ends within an entry
+     */
+    public Optional<BibEntry> next() throws IOException {
+        while (skipTo('@')) {
+            String type = readName().toLowerCase(Locale.ROOT);
+            skipWhitespace();
+            int open = read();
+            if ((open != '{') && (open != '(')) {
+                // An @ outside of an entry, e.g. in a comment
+                continue;
+            }
+            char close = open == '{' ? '}' : ')';
+
+            if ("comment".equals(type) || "preamble".equals(type) || "string".equals(type)) {
+                skipBlock(close);
+                continue;
+            }
+
+            BibEntry entry = new BibEntry(type);
+            skipWhitespace();
+            String key = readUntil(',', close).trim();
+            if (!key.isEmpty()) {
+                entry.setCiteKey(key);
+            }
+            readFields(entry, close);
+            return Optional.of(entry);
+        }
+        return Optional.empty();
+    }
+
+    private void readFields(BibEntry entry, char close) throws IOException {
+        while (true) {
+            skipWhitespace();
+            int c = peek();
+            if (c == END) {
+                throw new IOException("Unexpected end of file in entry " + entry.getCiteKeyOptional().orElse(""));
+            }
+            if (c == close) {
+                read();
+                return;
+            }
+            if (c == ',') {
+                read();
+                continue;
+            }
+
+            String name = readName().toLowerCase(Locale.ROOT);
+            skipWhitespace();
+            if (name.isEmpty() || (read() != '=')) {
+                throw new IOException("Malformed field in entry " + entry.getCiteKeyOptional().orElse(""));
+            }
+            String value = readValue(close);
+            if (!value.isEmpty()) {
+                entry.setField(name, value);
+            }
+        }
+    }
+
+    /**
+     * Reads a value consisting of braced, quoted or plain parts, joined by {@code #}
+     */
+    private String readValue(char close) throws IOException {
+        buffer.setLength(0);
+        while (true) {
+            skipWhitespace();
+            int c = peek();
+            if (c == '{') {
+                read();
+                readBraced();
+            } else if (c == '"') {
+                read();
+                readQuoted();
+            } else {
+                while (((c = peek()) != END) && (c != ',') && (c != close) && (c != '#') && !Character.isWhitespace(c)) {
+                    buffer.append((char) read());
+                }
+            }
+
+            skipWhitespace();
+            if (peek() != '#') {
+                return buffer.toString().trim();
+            }
+            read();
+        }
+    }
+
+    private void readBraced() throws IOException {
+        int depth = 1;
+        int c;
+        while ((c = read()) != END) {
+            if (c == '{') {
+                depth++;
+            } else if ((c == '}') && (--depth == 0)) {
+                return;
+            }
+            buffer.append((char) c);
+        }
+        throw new IOException("Unexpected end of file in braced value");
+    }
+
+    private void readQuoted() throws IOException {
+        int depth = 0;
+        int c;
+        while ((c = read()) != END) {
+            if (c == '{') {
+                depth++;
+            } else if (c == '}') {
+                depth--;
+            } else if ((c == '"') && (depth == 0)) {
+                return;
+            }
+            buffer.append((char) c);
+        }
+        throw new IOException("Unexpected end of file in quoted value");
+    }
+
+    private String readName() throws IOException {
+        StringBuilder name = new StringBuilder();
+        int c;
+        while (((c = peek()) != END) && (Character.isLetterOrDigit(c) || ("_-:.+/".indexOf(c) >= 0))) {
+            name.append((char) read());
+        }
+        return name.toString();
+    }
+
+    private String readUntil(char delimiter, char close) throws IOException {
+        StringBuilder text = new StringBuilder();
+        int c;
+        while (((c = peek()) != END) && (c != delimiter) && (c != close)) {
+            text.append((char) read());
+        }
+        return text.toString();
+    }
+
+    /**
+     * Skips the rest of a block, respecting nested braces
+     */
+    private void skipBlock(char close) throws IOException {
+        int depth = 0;
+        int c;
+        while ((c = read()) != END) {
+            if (c == '{') {
+                depth++;
+            } else if ((c == '}') && (depth > 0)) {
+                depth--;
+            } else if ((c == close) && (depth == 0)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return false if the end of the file was reached before the character
+     */
+    private boolean skipTo(char character) throws IOException {
+        int c;
+        while ((c = read()) != END) {
+            if (c == character) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void skipWhitespace() throws IOException {
+        while ((peek() != END) && Character.isWhitespace(peek())) {
+            read();
+        }
+    }
+
+    private int peek() throws IOException {
+        if (lookahead == NO_LOOKAHEAD) {
+            lookahead = reader.read();
+        }
+        return lookahead;
+    }
+
+    private int read() throws IOException {
+        int c = peek();
+        lookahead = NO_LOOKAHEAD;
+        return c;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,204 @@
+package org.jabref.gui.entryeditor;
+
+import java.io.IOException;
+import java.time.Duration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Stops calling a failing web service for a while, so that callers fail fast instead of waiting for timeouts.
+ * <p>
+ * The outcomes of the last calls are kept in a sliding window. Calls slower than the slow call threshold count as
+ * failures, as a service answering that slowly is as good as unavailable to the user. Once the share of failures in the
+ * window reaches the failure ratio, the breaker opens and rejects all calls. After the open duration, a single trial
+ * call is let through: if it succeeds in time, the breaker closes again, otherwise it stays open for another period.
+ */
+public class CircuitBreaker {
+
+    public static final int DEFAULT_WINDOW_SIZE = 20;
+    public static final int DEFAULT_MINIMUM_CALLS = 5;
+    public static final double DEFAULT_FAILURE_RATIO = 0.5;
+    public static final Duration DEFAULT_SLOW_CALL_THRESHOLD = Duration.ofSeconds(5);
+    public static final Duration DEFAULT_OPEN_DURATION = Duration.ofSeconds(30);
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CircuitBreaker.class);
+
+    private final String name;
+    private final boolean[] failed;
+    private final int minimumCalls;
+    private final double failureRatio;
+    private final long slowCallNanos;
+    private final long openNanos;
+
+    private State state = State.CLOSED;
+    private int calls;
+    private int next;
+    private int failures;
+    private long openedAt;
+    private boolean trialRunning;
+
+    /**
+     * @param name              Name of the service, used in messages
+     * @param windowSize        Number of recent calls whose outcome is considered
+     * @param minimumCalls      Number of calls in the window before the breaker may open
+     * @param failureRatio      Share of failed or slow calls at which the breaker opens
+     * @param slowCallThreshold Duration above which a successful call counts as failure
+     * @param openDuration      Time during which calls are rejected before a trial call is made
+     */
+    public CircuitBreaker(String name, int windowSize, int minimumCalls, double failureRatio, Duration slowCallThreshold,
+                          Duration openDuration) {
+        this.name = name;
+        this.failed = new boolean[windowSize];
+        this.minimumCalls = minimumCalls;
+        this.failureRatio = failureRatio;
+        this.slowCallNanos = slowCallThreshold.toNanos();
+        this.openNanos = openDuration.toNanos();
+    }
+
+    public static CircuitBreaker createDefault(String name) {
+        return new CircuitBreaker(name, DEFAULT_WINDOW_SIZE, DEFAULT_MINIMUM_CALLS, DEFAULT_FAILURE_RATIO,
+                DEFAULT_SLOW_CALL_THRESHOLD, DEFAULT_OPEN_DURATION);
+    }
+
+    /**
+     * Makes the given call unless the breaker is open, and records its outcome.
+     * @throws OpenException if the call was rejected
+     * @throws E if the call failed
+     */
+    public <T, E extends Exception> T execute(Call<T, E> call) throws E, OpenException {
+        if (!tryAcquirePermission()) {
+            RelatedArticlesMetrics.getDefault().increment(RelatedArticlesMetrics.Counter.CIRCUIT_REJECTIONS);
+            throw new OpenException(name + " is not available at the moment");
+        }
+
+        long start = System.nanoTime();
+        boolean succeeded = false;
+        try {
+            T result = call.call();
+            succeeded = true;
+            return result;
+        } finally {
+            onResult(succeeded, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * @return true if a call may be made now. The outcome of the call must then be reported by
+     * {@link #onResult(boolean, long)}.
+     */
+    public synchronized boolean tryAcquirePermission() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if ((System.nanoTime() - openedAt) < openNanos) {
+                    return false;
+                }
+                state = State.HALF_OPEN;
+                trialRunning = true;
+                return true;
+            default:
+                if (trialRunning) {
+                    return false;
+                }
+                trialRunning = true;
+                return true;
+        }
+    }
+
+    /**
+     * Records the outcome of a permitted call
+     * @param succeeded Whether the call returned normally
+     * @param durationNanos Duration of the call
+     */
+    public synchronized void onResult(boolean succeeded, long durationNanos) {
+        boolean failure = !succeeded || (durationNanos > slowCallNanos);
+        if (state == State.HALF_OPEN) {
+            trialRunning = false;
+            if (failure) {
+                open();
+            } else {
+                close();
+            }
+            return;
+        }
+        if (state == State.OPEN) {
+            // A call permitted before the breaker opened
+            return;
+        }
+
+        if (calls == failed.length) {
+            if (failed[next]) {
+                failures--;
+            }
+        } else {
+            calls++;
+        }
+        failed[next] = failure;
+        if (failure) {
+            failures++;
+        }
+        next = (next + 1) % failed.length;
+
+        if ((calls >= minimumCalls) && (failures >= (failureRatio * calls))) {
+            open();
+        }
+    }
+
+    private void open() {
+        if (state != State.OPEN) {
+            LOGGER.warn(name + " is failing or too slow, requests are suspended for " + (openNanos / 1_000_000_000) + " s");
+        }
+        state = State.OPEN;
+        openedAt = System.nanoTime();
+        resetWindow();
+    }
+
+    private void close() {
+        LOGGER.info(name + " is available again");
+        state = State.CLOSED;
+        resetWindow();
+    }
+
+    private void resetWindow() {
+        calls = 0;
+        next = 0;
+        failures = 0;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public enum State {
+        /** Calls are made */
+        CLOSED,
+        /** Calls are rejected */
+        OPEN,
+        /** A single trial call is made */
+        HALF_OPEN
+    }
+
+    /**
+     * A call to the protected service
+     */
+    @FunctionalInterface
+    public interface Call<T, E extends Exception> {
+        T call() throws E;
+    }
+
+    /**
+     * Thrown instead of making a call while the breaker is open
+     */
+    public static class OpenException extends IOException {
+
+        public OpenException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package org.jabref.gui.entryeditor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javafx.beans.InvalidationListener;
+import javafx.beans.Observable;
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Collects everything a tab attaches while it is bound to one entry, so that it can be released when the tab is bound
+ * to the next entry.
+ * <p>
+ * Listeners added to long-lived observables through the scope are removed on disposal, and callbacks of background
+ * work are expected to check {@link #isDisposed()} before touching the UI. Further cleanup, e.g. releasing images, is
+ * registered with {@link #onDispose(Runnable)}. Apart from {@link #isDisposed()}, all methods have to be called on the
+ * JavaFX thread.
+ */
+public class EntryBindingScope {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(EntryBindingScope.class);
+
+    private final List<Runnable> disposers = new ArrayList<>();
+    private volatile boolean disposed;
+
+    /**
+     * Adds the listener to the given observable until the scope is disposed
+     */
+    public <T> void addListener(ObservableValue<T> observable, ChangeListener<? super T> listener) {
+        observable.addListener(listener);
+        onDispose(() -> observable.removeListener(listener));
+    }
+
+    /**
+     * Adds the listener to the given observable until the scope is disposed
+     */
+    public void addListener(Observable observable, InvalidationListener listener) {
+        observable.addListener(listener);
+        onDispose(() -> observable.removeListener(listener));
+    }
+
+    /**
+     * Registers an action run on disposal. If the scope is already disposed, the action is run immediately.
+     */
+    public void onDispose(Runnable disposer) {
+        if (disposed) {
+            disposer.run();
+        } else {
+            disposers.add(disposer);
+        }
+    }
+
+    /**
+     * Callbacks of background work should check this before touching the UI
+     */
+    public boolean isDisposed() {
+        return disposed;
+    }
+
+    /**
+     * Runs all registered disposal actions in reverse order of their registration
+     */
+    public void dispose() {
+        if (disposed) {
+            return;
+        }
+        disposed = true;
+        for (int i = disposers.size() - 1; i >= 0; i--) {
+            try {
+                disposers.get(i).run();
+            } catch (RuntimeException e) {
+                LOGGER.warn("Could not release resource of entry binding", e);
+            }
+        }
+        disposers.clear();
+    }
+}
@@ -0,0 +1,383 @@
+package org.jabref.gui.entryeditor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import org.jabref.model.database.BibDatabase;
+import org.jabref.model.database.event.EntryAddedEvent;
+import org.jabref.model.database.event.EntryRemovedEvent;
+import org.jabref.model.entry.BibEntry;
+import org.jabref.model.entry.FieldName;
+import org.jabref.model.entry.event.EntryChangedEvent;
+import org.jabref.model.entry.event.FieldChangedEvent;
+
+import com.google.common.eventbus.Subscribe;
+
+/**
+ * Finds the entry of the open database a recommendation duplicates, even if its title is spelled slightly differently.
+ * <p>
+ * Every entry is reduced to the set of terms of its title and authors, and the set to a MinHash signature of
+ * {@link #SIGNATURE_LENGTH} values: the share of equal values of two signatures estimates the Jaccard similarity of the
+ * sets. Signatures are split into {@link #BANDS} bands, and each entry is filed in one hash bucket per band
+ * (locality-sensitive hashing). A recommendation is only compared with the entries sharing at least one bucket with it,
+ * at most {@link #MAX_CANDIDATES_PER_BAND} per band, so a lookup takes constant time regardless of the size of the
+ * library. Buckets are doubly linked lists in primitive arrays, thus entries are added and removed in constant time.
+ * Like {@link AuthorIndex}, the index follows the changes of the database by marking entries as dirty and applying them
+ * right before the next query.
+ */
+public class LibraryDuplicateIndex {
+
+    public static final int SIGNATURE_LENGTH = 24;
+    public static final int BANDS = 6;
+    public static final double DEFAULT_SIMILARITY = 0.7;
+    /** Maximal number of entries compared per band, bounding the time of a lookup */
+    public static final int MAX_CANDIDATES_PER_BAND = 16;
+
+    private static final int ROWS = SIGNATURE_LENGTH / BANDS;
+    private static final int NONE = -1;
+    /** Distinguishes author terms from title terms */
+    private static final long AUTHOR_SALT = 0x9E3779B97F4A7C15L;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final BibDatabase database;
+    private final TermTokenizer tokenizer;
+    private final int minEqualValues;
+
+    // Entries by id. Ids of removed entries are reused.
+    private final List<BibEntry> entries = new ArrayList<>();
+    private final Map<BibEntry, Integer> entryIds = new IdentityHashMap<>();
+    private int[] freeEntryIds = new int[16];
+    private int freeEntryCount;
+    // Signatures by entry id, truncated to 16 bits per value
+    private char[] signatures = new char[INITIAL_CAPACITY * SIGNATURE_LENGTH];
+    private boolean[] indexed = new boolean[INITIAL_CAPACITY];
+    // First node of each bucket. Node entryId * BANDS + band files an entry in the bucket of the band.
+    private int[] heads = newHeads(INITIAL_CAPACITY);
+    private int[] next = new int[INITIAL_CAPACITY * BANDS];
+    private int[] previous = new int[INITIAL_CAPACITY * BANDS];
+    // Signature of the current lookup
+    private final char[] query = new char[SIGNATURE_LENGTH];
+
+    private final Set<BibEntry> pendingUpdates = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Set<BibEntry> pendingRemovals = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    public LibraryDuplicateIndex(BibDatabase database, TermTokenizer tokenizer) {
+        this(database, tokenizer, DEFAULT_SIMILARITY);
+    }
+
+    /**
+     * @param similarity Minimal estimated Jaccard similarity of the terms of a recommendation and an entry for the
+     *                   recommendation to be considered a duplicate
+     */
+    public LibraryDuplicateIndex(BibDatabase database, TermTokenizer tokenizer, double similarity) {
+        this.database = database;
+        this.tokenizer = tokenizer;
+        this.minEqualValues = (int) Math.ceil(similarity * SIGNATURE_LENGTH);
+        synchronized (pendingUpdates) {
+            pendingUpdates.addAll(database.getEntries());
+        }
+        database.registerListener(this);
+    }
+
+    /**
+     * Stops following the changes of the database.
+     */
+    public void close() {
+        database.unregisterListener(this);
+    }
+
+    @Subscribe
+    public void listen(EntryAddedEvent event) {
+        markDirty(event.getBibEntry());
+    }
+
+    @Subscribe
+    public void listen(EntryChangedEvent event) {
+        if (event instanceof FieldChangedEvent) {
+            String field = ((FieldChangedEvent) event).getFieldName();
+            if (!FieldName.TITLE.equals(field) && !FieldName.AUTHOR.equals(field)) {
+                return;
+            }
+        }
+        markDirty(event.getBibEntry());
+    }
+
+    @Subscribe
+    public void listen(EntryRemovedEvent event) {
+        synchronized (pendingUpdates) {
+            pendingUpdates.remove(event.getBibEntry());
+            pendingRemovals.add(event.getBibEntry());
+        }
+    }
+
+    private void markDirty(BibEntry entry) {
+        synchronized (pendingUpdates) {
+            pendingRemovals.remove(entry);
+            pendingUpdates.add(entry);
+        }
+    }
+
+    /**
+     * Brings the index up to date with the database. This is done implicitly by all queries, but may be called
+     * beforehand on a background thread to avoid paying for the initial indexing in the first query.
+     */
+    public synchronized void update() {
+        List<BibEntry> updates;
+        List<BibEntry> removals;
+        synchronized (pendingUpdates) {
+            // Clearing the sets takes time proportional to the largest number of entries they ever held
+            if (pendingUpdates.isEmpty() && pendingRemovals.isEmpty()) {
+                return;
+            }
+            updates = new ArrayList<>(pendingUpdates);
+            removals = new ArrayList<>(pendingRemovals);
+            pendingUpdates.clear();
+            pendingRemovals.clear();
+        }
+
+        for (BibEntry entry : removals) {
+            remove(entry);
+        }
+        for (BibEntry entry : updates) {
+            remove(entry);
+            add(entry);
+        }
+    }
+
+    /**
+     * Wraps the given source such that its recommendations are checked against the library on the fetching thread,
+     * before they are passed on.
+     * @param onDuplicate Receives every recommendation found in the library
+     */
+    public RecommendationSource wrap(RecommendationSource source, Consumer<BibEntry> onDuplicate) {
+        return (entry, sink) -> source.fetch(entry, recommendations -> {
+            findDuplicates(recommendations, onDuplicate);
+            return sink.accept(recommendations);
+        });
+    }
+
+    /**
+     * Passes each of the given recommendations found in the library to the given consumer
+     */
+    public void findDuplicates(List<BibEntry> recommendations, Consumer<BibEntry> onDuplicate) {
+        for (BibEntry recommendation : recommendations) {
+            if (findDuplicate(recommendation).isPresent()) {
+                onDuplicate.accept(recommendation);
+            }
+        }
+    }
+
+    /**
+     * @return The entry of the database most similar to the given recommendation, if it is similar enough
+     */
+    public Optional<BibEntry> findDuplicate(BibEntry recommendation) {
+        return findDuplicate(recommendation.getTitle().orElse(""), recommendation.getField(FieldName.AUTHOR).orElse(""));
+    }
+
+    /**
+     * @param title Title of the recommendation
+     * @param authors Authors of the recommendation, in any format
+     * @return The entry of the database most similar to the given recommendation, if it is similar enough
+     */
+    public synchronized Optional<BibEntry> findDuplicate(String title, String authors) {
+        update();
+        if (!computeSignature(title, authors, query, 0)) {
+            return Optional.empty();
+        }
+
+        int best = NONE;
+        int bestEqualValues = minEqualValues - 1;
+        for (int band = 0; band < BANDS; band++) {
+            int node = heads[slot(query, 0, band)];
+            for (int visited = 0; (node != NONE) && (visited < MAX_CANDIDATES_PER_BAND); visited++) {
+                // Buckets are shared by all bands, thus only nodes of the same band are candidates
+                if ((node % BANDS) == band) {
+                    int entryId = node / BANDS;
+                    int equalValues = countEqualValues(entryId);
+                    if (equalValues > bestEqualValues) {
+                        best = entryId;
+                        bestEqualValues = equalValues;
+                    }
+                }
+                node = next[node];
+            }
+        }
+        return best == NONE ? Optional.empty() : Optional.of(entries.get(best));
+    }
+
+    /**
+     * @return Number of indexed entries
+     */
+    public synchronized int size() {
+        update();
+        return entryIds.size();
+    }
+
+    private int countEqualValues(int entryId) {
+        int offset = entryId * SIGNATURE_LENGTH;
+        int count = 0;
+        for (int i = 0; i < SIGNATURE_LENGTH; i++) {
+            if (signatures[offset + i] == query[i]) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private void add(BibEntry entry) {
+        int entryId;
+        if (freeEntryCount > 0) {
+            entryId = freeEntryIds[--freeEntryCount];
+            entries.set(entryId, entry);
+        } else {
+            entryId = entries.size();
+            entries.add(entry);
+            if (entryId == indexed.length) {
+                grow();
+            }
+        }
+        entryIds.put(entry, entryId);
+
+        // Entries without any term cannot be matched
+        indexed[entryId] = computeSignature(entry.getTitle().orElse(""), entry.getField(FieldName.AUTHOR).orElse(""),
+                signatures, entryId * SIGNATURE_LENGTH);
+        if (indexed[entryId]) {
+            link(entryId);
+        }
+    }
+
+    private void remove(BibEntry entry) {
+        Integer entryId = entryIds.remove(entry);
+        if (entryId == null) {
+            return;
+        }
+
+        if (indexed[entryId]) {
+            unlink(entryId);
+            indexed[entryId] = false;
+        }
+        entries.set(entryId, null);
+        if (freeEntryCount == freeEntryIds.length) {
+            freeEntryIds = Arrays.copyOf(freeEntryIds, freeEntryCount * 2);
+        }
+        freeEntryIds[freeEntryCount++] = entryId;
+    }
+
+    private void link(int entryId) {
+        int offset = entryId * SIGNATURE_LENGTH;
+        for (int band = 0; band < BANDS; band++) {
+            int node = (entryId * BANDS) + band;
+            int slot = slot(signatures, offset, band);
+            int head = heads[slot];
+            next[node] = head;
+            previous[node] = NONE;
+            if (head != NONE) {
+                previous[head] = node;
+            }
+            heads[slot] = node;
+        }
+    }
+
+    private void unlink(int entryId) {
+        int offset = entryId * SIGNATURE_LENGTH;
+        for (int band = 0; band < BANDS; band++) {
+            int node = (entryId * BANDS) + band;
+            if (previous[node] == NONE) {
+                heads[slot(signatures, offset, band)] = next[node];
+            } else {
+                next[previous[node]] = next[node];
+            }
+            if (next[node] != NONE) {
+                previous[next[node]] = previous[node];
+            }
+        }
+    }
+
+    /**
+     * Doubles the capacity for entries and re-files all entries in a bucket table of matching size
+     */
+    private void grow() {
+        int capacity = indexed.length * 2;
+        signatures = Arrays.copyOf(signatures, capacity * SIGNATURE_LENGTH);
+        indexed = Arrays.copyOf(indexed, capacity);
+        next = Arrays.copyOf(next, capacity * BANDS);
+        previous = Arrays.copyOf(previous, capacity * BANDS);
+        heads = newHeads(capacity);
+        for (int entryId = 0; entryId < entries.size(); entryId++) {
+            if (indexed[entryId]) {
+                link(entryId);
+            }
+        }
+    }
+
+    private static int[] newHeads(int capacity) {
+        int[] result = new int[Integer.highestOneBit((capacity * BANDS) - 1) << 1];
+        Arrays.fill(result, NONE);
+        return result;
+    }
+
+    private int slot(char[] signature, int offset, int band) {
+        long key = band;
+        int start = offset + (band * ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            key = (key << 16) ^ (key >>> 48) ^ signature[start + i];
+        }
+        return (int) mix(key) & (heads.length - 1);
+    }
+
+    /**
+     * Computes the MinHash signature of the terms of the given title and authors into the given array
+     * @return false if there are no terms
+     */
+    private boolean computeSignature(String title, String authors, char[] signature, int offset) {
+        int[] minima = new int[SIGNATURE_LENGTH];
+        Arrays.fill(minima, Integer.MAX_VALUE);
+        boolean[] hasTerms = new boolean[1];
+        tokenizer.tokenize(title, (hash, term) -> {
+            addTerm(hash, minima);
+            hasTerms[0] = true;
+        });
+        tokenizer.tokenize(authors, (hash, term) -> {
+            addTerm(hash ^ AUTHOR_SALT, minima);
+            hasTerms[0] = true;
+        });
+
+        for (int i = 0; i < SIGNATURE_LENGTH; i++) {
+            signature[offset + i] = (char) (minima[i] >>> 15);
+        }
+        return hasTerms[0];
+    }
+
+    /**
+     * Lowers the minima by the hash values of the given term. The i-th hash function is derived from two independent
+     * hashes of the term as {@code a + i * b}, which is as good as independent functions for MinHash.
+     */
+    private static void addTerm(long term, int[] minima) {
+        long mixed = mix(term);
+        int a = (int) mixed & Integer.MAX_VALUE;
+        int b = (int) (mixed >>> 32) | 1;
+        for (int i = 0; i < SIGNATURE_LENGTH; i++) {
+            int value = (a + (i * b)) & Integer.MAX_VALUE;
+            if (value < minima[i]) {
+                minima[i] = value;
+            }
+        }
+    }
+
+    /**
+     * Finalizer of SplitMix64, spreading all bits of the key over the result
+     */
+    private static long mix(long key) {
+        long z = key;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
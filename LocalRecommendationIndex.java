@@ -0,0 +1,407 @@
+package org.jabref.gui.entryeditor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.jabref.model.database.BibDatabase;
+import org.jabref.model.database.event.EntryAddedEvent;
+import org.jabref.model.database.event.EntryRemovedEvent;
+import org.jabref.model.entry.BibEntry;
+import org.jabref.model.entry.FieldName;
+import org.jabref.model.entry.event.EntryChangedEvent;
+
+import com.google.common.eventbus.Subscribe;
+
+/**
+ * Offline recommendation engine over the entries of the open database.
+ * <p>
+ * Title, abstract and keywords of all entries are kept in an inverted index which is scored using BM25. The index
+ * follows changes of the database: change events only mark entries as dirty, and the dirty entries are (re)indexed
+ * right before the next query. Thus, editing entries stays cheap and all indexing work happens on the querying thread.
+ * Removed and changed entries leave tombstones behind which are compacted once they make up a quarter of the index.
+ */
+public class LocalRecommendationIndex implements RecommendationSource {
+
+    public static final int DEFAULT_RESULT_COUNT = 10;
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int TITLE_WEIGHT = 2;
+    private static final int MAX_QUERY_TERMS = 32;
+
+    private final BibDatabase database;
+    private final TermTokenizer tokenizer;
+
+    private final LongIntHashMap termIds = new LongIntHashMap(1024);
+    private final List<Postings> postings = new ArrayList<>();
+    private final List<BibEntry> documents = new ArrayList<>();
+    private final Map<BibEntry, Integer> documentIds = new IdentityHashMap<>();
+    private final BitSet deleted = new BitSet();
+    private int[] documentLengths = new int[1024];
+    private long totalLength;
+    private int liveDocuments;
+
+    private final Set<BibEntry> pendingUpdates = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Set<BibEntry> pendingRemovals = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    private float[] scores = new float[0];
+
+    // Term counts of the document being added, by term id
+    private int[] termCounts = new int[1024];
+    private int[] documentTerms = new int[64];
+    private int documentTermCount;
+    private int documentLength;
+
+    public LocalRecommendationIndex(BibDatabase database, TermTokenizer tokenizer) {
+        this.database = database;
+        this.tokenizer = tokenizer;
+        synchronized (pendingUpdates) {
+            pendingUpdates.addAll(database.getEntries());
+        }
+        database.registerListener(this);
+    }
+
+    /**
+     * Stops following the changes of the database.
+     */
+    public void close() {
+        database.unregisterListener(this);
+    }
+
+    @Subscribe
+    public void listen(EntryAddedEvent event) {
+        markDirty(event.getBibEntry());
+    }
+
+    @Subscribe
+    public void listen(EntryChangedEvent event) {
+        markDirty(event.getBibEntry());
+    }
+
+    @Subscribe
+    public void listen(EntryRemovedEvent event) {
+        synchronized (pendingUpdates) {
+            pendingUpdates.remove(event.getBibEntry());
+            pendingRemovals.add(event.getBibEntry());
+        }
+    }
+
+    private void markDirty(BibEntry entry) {
+        synchronized (pendingUpdates) {
+            pendingRemovals.remove(entry);
+            pendingUpdates.add(entry);
+        }
+    }
+
+    /**
+     * Brings the index up to date with the database. This is done implicitly by {@link #search(BibEntry, int)}, but
+     * may be called beforehand on a background thread to avoid paying for the initial indexing in the first query.
+     */
+    public synchronized void update() {
+        List<BibEntry> updates;
+        List<BibEntry> removals;
+        synchronized (pendingUpdates) {
+            updates = new ArrayList<>(pendingUpdates);
+            removals = new ArrayList<>(pendingRemovals);
+            pendingUpdates.clear();
+            pendingRemovals.clear();
+        }
+
+        for (BibEntry entry : removals) {
+            remove(entry);
+        }
+        for (BibEntry entry : updates) {
+            remove(entry);
+            add(entry);
+        }
+
+        if (deleted.cardinality() > (documents.size() / 4)) {
+            compact();
+        }
+    }
+
+    @Override
+    public void fetch(BibEntry entry, Sink sink) {
+        sink.accept(search(entry, DEFAULT_RESULT_COUNT));
+    }
+
+    /**
+     * Finds the entries of the database most similar to the given entry.
+     * @param entry Entry to find related entries for. The entry itself is never part of the result.
+     * @param count Maximal number of returned entries
+     * @return Related entries, the most relevant one first
+     */
+    public synchronized List<BibEntry> search(BibEntry entry, int count) {
+        update();
+        if (liveDocuments == 0) {
+            return Collections.emptyList();
+        }
+
+        List<Integer> queryTerms = getQueryTerms(entry);
+        if (scores.length < documents.size()) {
+            scores = new float[documents.size()];
+        }
+
+        double averageLength = (double) totalLength / liveDocuments;
+        int[] touched = new int[16];
+        int touchedCount = 0;
+        for (int termId : queryTerms) {
+            Postings termPostings = postings.get(termId);
+            int documentFrequency = countLivePostings(termPostings);
+            double idf = Math.log(1 + ((liveDocuments - documentFrequency + 0.5) / (documentFrequency + 0.5)));
+            for (int i = 0; i < termPostings.size; i++) {
+                int document = termPostings.documents[i];
+                if (deleted.get(document)) {
+                    continue;
+                }
+                int frequency = termPostings.frequencies[i];
+                double norm = K1 * ((1 - B) + ((B * documentLengths[document]) / averageLength));
+                if (scores[document] == 0) {
+                    if (touchedCount == touched.length) {
+                        touched = Arrays.copyOf(touched, touchedCount * 2);
+                    }
+                    touched[touchedCount++] = document;
+                }
+                scores[document] += (float) ((idf * frequency * (K1 + 1)) / (frequency + norm));
+            }
+        }
+
+        Integer self = documentIds.get(entry);
+        TopDocuments top = new TopDocuments(count);
+        for (int i = 0; i < touchedCount; i++) {
+            int document = touched[i];
+            if ((self == null) || (document != self)) {
+                top.offer(document, scores[document]);
+            }
+            scores[document] = 0;
+        }
+
+        List<BibEntry> result = new ArrayList<>(top.size);
+        for (int document : top.toSortedArray()) {
+            result.add(documents.get(document));
+        }
+        return result;
+    }
+
+    /**
+     * Counts the postings of live documents. Tombstones are kept until the next compaction, and counting them would
+     * let the document frequency exceed the number of live documents, turning the idf of frequent terms negative.
+     */
+    private int countLivePostings(Postings termPostings) {
+        if (liveDocuments == documents.size()) {
+            return termPostings.size;
+        }
+        int live = 0;
+        for (int i = 0; i < termPostings.size; i++) {
+            if (!deleted.get(termPostings.documents[i])) {
+                live++;
+            }
+        }
+        return live;
+    }
+
+    /**
+     * Determines the terms of the query entry which are known to the index. Only the rarest terms are kept, as the
+     * frequent ones contribute little to the score but dominate the cost of the query.
+     */
+    private List<Integer> getQueryTerms(BibEntry entry) {
+        Set<Integer> queryTerms = new LinkedHashSet<>();
+        tokenize(entry, (hash, term) -> {
+            int termId = termIds.get(hash, -1);
+            if (termId >= 0) {
+                queryTerms.add(termId);
+            }
+        });
+
+        List<Integer> sortedTerms = new ArrayList<>(queryTerms);
+        sortedTerms.sort((first, second) -> Integer.compare(postings.get(first).size, postings.get(second).size));
+        return sortedTerms.size() > MAX_QUERY_TERMS ? sortedTerms.subList(0, MAX_QUERY_TERMS) : sortedTerms;
+    }
+
+    private void add(BibEntry entry) {
+        int document = documents.size();
+        documents.add(entry);
+        documentIds.put(entry, document);
+
+        documentTermCount = 0;
+        documentLength = 0;
+        tokenize(entry, this::countTerm);
+        for (int i = 0; i < documentTermCount; i++) {
+            int termId = documentTerms[i];
+            postings.get(termId).add(document, termCounts[termId]);
+            termCounts[termId] = 0;
+        }
+
+        if (document == documentLengths.length) {
+            documentLengths = Arrays.copyOf(documentLengths, document * 2);
+        }
+        documentLengths[document] = documentLength;
+        totalLength += documentLength;
+        liveDocuments++;
+    }
+
+    /**
+     * Counts an occurrence of the given term in the document being added
+     */
+    private void countTerm(long hash, CharSequence term) {
+        int termId = termIds.get(hash, -1);
+        if (termId < 0) {
+            termId = postings.size();
+            termIds.put(hash, termId);
+            postings.add(new Postings());
+            if (termId == termCounts.length) {
+                termCounts = Arrays.copyOf(termCounts, termId * 2);
+            }
+        }
+        if (termCounts[termId]++ == 0) {
+            if (documentTermCount == documentTerms.length) {
+                documentTerms = Arrays.copyOf(documentTerms, documentTermCount * 2);
+            }
+            documentTerms[documentTermCount++] = termId;
+        }
+        documentLength++;
+    }
+
+    private void remove(BibEntry entry) {
+        Integer document = documentIds.remove(entry);
+        if (document != null) {
+            deleted.set(document);
+            totalLength -= documentLengths[document];
+            liveDocuments--;
+        }
+    }
+
+    /**
+     * Rebuilds the index from the live documents, dropping all tombstones.
+     */
+    private void compact() {
+        List<BibEntry> live = new ArrayList<>(liveDocuments);
+        for (int document = 0; document < documents.size(); document++) {
+            if (!deleted.get(document)) {
+                live.add(documents.get(document));
+            }
+        }
+
+        termIds.clear();
+        postings.clear();
+        documents.clear();
+        documentIds.clear();
+        deleted.clear();
+        totalLength = 0;
+        liveDocuments = 0;
+        for (BibEntry entry : live) {
+            add(entry);
+        }
+    }
+
+    private void tokenize(BibEntry entry, TermTokenizer.TermConsumer consumer) {
+        String title = entry.getField(FieldName.TITLE).orElse("");
+        for (int i = 0; i < TITLE_WEIGHT; i++) {
+            tokenizer.tokenize(title, consumer);
+        }
+        tokenizer.tokenize(entry.getField(FieldName.ABSTRACT).orElse(""), consumer);
+        tokenizer.tokenize(entry.getField(FieldName.KEYWORDS).orElse(""), consumer);
+    }
+
+    private static class Postings {
+
+        private int[] documents = new int[4];
+        private int[] frequencies = new int[4];
+        private int size;
+
+        void add(int document, int frequency) {
+            if (size == documents.length) {
+                documents = Arrays.copyOf(documents, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            documents[size] = document;
+            frequencies[size] = frequency;
+            size++;
+        }
+    }
+
+    /**
+     * Bounded min-heap keeping the best scored documents
+     */
+    private static class TopDocuments {
+
+        private final int[] documents;
+        private final float[] scores;
+        private int size;
+
+        TopDocuments(int capacity) {
+            documents = new int[capacity];
+            scores = new float[capacity];
+        }
+
+        void offer(int document, float score) {
+            if (size < documents.length) {
+                documents[size] = document;
+                scores[size] = score;
+                siftUp(size++);
+            } else if ((size > 0) && (score > scores[0])) {
+                documents[0] = document;
+                scores[0] = score;
+                siftDown(0);
+            }
+        }
+
+        int[] toSortedArray() {
+            int[] sorted = new int[size];
+            while (size > 0) {
+                sorted[size - 1] = documents[0];
+                size--;
+                documents[0] = documents[size];
+                scores[0] = scores[size];
+                siftDown(0);
+            }
+            return sorted;
+        }
+
+        private void siftUp(int index) {
+            while (index > 0) {
+                int parent = (index - 1) / 2;
+                if (scores[parent] <= scores[index]) {
+                    return;
+                }
+                swap(index, parent);
+                index = parent;
+            }
+        }
+
+        private void siftDown(int index) {
+            while (true) {
+                int smallest = index;
+                int left = (2 * index) + 1;
+                int right = left + 1;
+                if ((left < size) && (scores[left] < scores[smallest])) {
+                    smallest = left;
+                }
+                if ((right < size) && (scores[right] < scores[smallest])) {
+                    smallest = right;
+                }
+                if (smallest == index) {
+                    return;
+                }
+                swap(index, smallest);
+                index = smallest;
+            }
+        }
+
+        private void swap(int first, int second) {
+            int document = documents[first];
+            documents[first] = documents[second];
+            documents[second] = document;
+            float score = scores[first];
+            scores[first] = scores[second];
+            scores[second] = score;
+        }
+    }
+}
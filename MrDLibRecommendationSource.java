@@ -0,0 +1,216 @@
+package org.jabref.gui.entryeditor;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.net.URISyntaxException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.jabref.logic.importer.FetcherException;
+import org.jabref.logic.importer.fileformat.MrDLibImporter;
+import org.jabref.logic.util.Version;
+import org.jabref.model.entry.BibEntry;
+import org.jabref.model.entry.FieldName;
+import org.jabref.model.strings.LatexToUnicodeAdapter;
+
+import org.apache.http.client.utils.URIBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Recommendations of the Mr. DLib web service, answered from a {@link RecommendationCache} whenever possible.
+ * <p>
+ * The request of the {@link org.jabref.logic.importer.fetcher.MrDLibFetcher} is sent through the shared
+ * {@link RecommendationHttpClient}, which reuses its connections, to the public service or to the one configured by
+ * the {@link RecommendationEndpoints}.
+ * <p>
+ * Requests are rate limited and guarded by a {@link CircuitBreaker}, so that the tab fails fast while Mr. DLib is down
+ * or slow instead of tying up threads until timeouts. Every attempt of a request is recorded by the breaker, and the
+ * requests of the tab, which the user is waiting for, are not retried. Expired recommendations are served right away
+ * while fresh ones are fetched in the background on a thread of the source.
+ */
+public class MrDLibRecommendationSource implements RecommendationSource {
+
+    public static final double DEFAULT_REQUESTS_PER_SECOND = 4;
+    public static final int DEFAULT_BURST = 8;
+    /** Maximal time a request waits for the rate limiter before it fails */
+    public static final long MAX_RATE_LIMIT_WAIT_MILLIS = 2000;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MrDLibRecommendationSource.class);
+
+    private final RecommendationCache cache;
+    private final CircuitBreaker circuitBreaker = CircuitBreaker.createDefault("Mr. DLib");
+    private final TokenBucketRateLimiter rateLimiter = new TokenBucketRateLimiter(DEFAULT_REQUESTS_PER_SECOND, DEFAULT_BURST);
+    private final Set<String> revalidating = ConcurrentHashMap.newKeySet();
+    private final ExecutorService revalidator = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "MrDLibRevalidation");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+    private final ServiceQuery serviceQuery;
+    private final int backgroundRetries;
+
+    /**
+     * @param serviceUrl Base URL of the service without trailing slash, e.g.
+     *                   {@link RecommendationEndpoints#DEFAULT_MR_DLIB_URL} or a local stub server
+     * @param language Language of the user. Read for every request, so that a changed preference is picked up.
+     * @param version Version of JabRef
+     */
+    public MrDLibRecommendationSource(RecommendationCache cache, RecommendationHttpClient httpClient, String serviceUrl,
+                                      Supplier<String> language, Version version) {
+        this.cache = cache;
+        this.serviceQuery = new ServiceQuery(httpClient, circuitBreaker, serviceUrl, language, version.getFullVersion());
+        this.backgroundRetries = httpClient.getMaxRetries();
+    }
+
+    /**
+     * Gets the recommendations the tab shows for the given entry. As the user is waiting for them, a failed request is
+     * not retried.
+     */
+    @Override
+    public void fetch(BibEntry entry, Sink sink) throws Exception {
+        sink.accept(getRecommendations(entry, 0));
+    }
+
+    /**
+     * Gets the recommendations for the given entry, either from the recommendation cache or from Mr. DLib.
+     * Freshly fetched recommendations are stored in the cache. If only expired recommendations are cached, they are
+     * returned and refreshed in the background. Failed requests are retried, so this is meant for background work like
+     * prefetching.
+     * @param entry The currently selected BibEntry on the JabRef UI.
+     * @return List of BibEntries of related articles
+     */
+    public List<BibEntry> getRecommendations(BibEntry entry) throws FetcherException {
+        return getRecommendations(entry, backgroundRetries);
+    }
+
+    private List<BibEntry> getRecommendations(BibEntry entry, int retries) throws FetcherException {
+        Optional<List<BibEntry>> cached = cache.get(entry);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+
+        Optional<List<BibEntry>> stale = cache.getStale(entry);
+        if (stale.isPresent()) {
+            revalidate(entry);
+            return stale.get();
+        }
+        return fetchRemote(entry, retries);
+    }
+
+    private List<BibEntry> fetchRemote(BibEntry entry, int retries) throws FetcherException {
+        try {
+            if (!rateLimiter.tryAcquire(MAX_RATE_LIMIT_WAIT_MILLIS, TimeUnit.MILLISECONDS)) {
+                throw new FetcherException("Too many requests to Mr. DLib");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new FetcherException("Interrupted while waiting for Mr. DLib", e);
+        }
+
+        List<BibEntry> recommendations;
+        try (RelatedArticlesMetrics.Timing timing = RelatedArticlesMetrics.getDefault().start(RelatedArticlesMetrics.Phase.FETCH)) {
+            recommendations = serviceQuery.performSearch(entry, retries);
+        } catch (FetcherException e) {
+            // Requests rejected by the open circuit breaker are counted by the breaker
+            if (!(e.getCause() instanceof CircuitBreaker.OpenException)) {
+                RelatedArticlesMetrics.getDefault().increment(RelatedArticlesMetrics.Counter.FETCH_FAILURES);
+            }
+            throw e;
+        }
+        cache.put(entry, recommendations);
+        return recommendations;
+    }
+
+    /**
+     * Fetches fresh recommendations for the given entry in the background, unless that is already happening
+     */
+    private void revalidate(BibEntry entry) {
+        String key = RecommendationCache.fingerprint(entry);
+        if (!revalidating.add(key)) {
+            return;
+        }
+        revalidator.execute(() -> {
+            try {
+                fetchRemote(entry, backgroundRetries);
+            } catch (FetcherException e) {
+                LOGGER.debug("Could not refresh the recommendations for " + entry.getTitle().orElse(""), e);
+            } finally {
+                revalidating.remove(key);
+            }
+        });
+    }
+
+    /**
+     * @return The circuit breaker guarding the requests to Mr. DLib
+     */
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    /**
+     * The request of the {@link org.jabref.logic.importer.fetcher.MrDLibFetcher}, sent to the given service URL
+     */
+    private static class ServiceQuery {
+
+        private final RecommendationHttpClient httpClient;
+        private final CircuitBreaker circuitBreaker;
+        private final String serviceUrl;
+        private final Supplier<String> language;
+        private final String version;
+
+        ServiceQuery(RecommendationHttpClient httpClient, CircuitBreaker circuitBreaker, String serviceUrl,
+                     Supplier<String> language, String version) {
+            this.httpClient = httpClient;
+            this.circuitBreaker = circuitBreaker;
+            this.serviceUrl = serviceUrl;
+            this.language = language;
+            this.version = version;
+        }
+
+        List<BibEntry> performSearch(BibEntry entry, int retries) throws FetcherException {
+            Optional<String> title = entry.getField(FieldName.TITLE).map(LatexToUnicodeAdapter::format);
+            if (!title.isPresent()) {
+                return Collections.emptyList();
+            }
+
+            String response;
+            try {
+                URIBuilder builder = new URIBuilder(serviceUrl);
+                // The encoding does not work for /, thus they are replaced as by the fetcher
+                builder.setPath(Objects.toString(builder.getPath(), "") + "/v1/documents/" + title.get().replace('/', ' ') + "/related_documents");
+                builder.addParameter("partner_id", "jabref");
+                builder.addParameter("app_id", "jabref_desktop");
+                builder.addParameter("app_version", version);
+                builder.addParameter("app_lang", language.get());
+                response = httpClient.get(builder.build().toString(), circuitBreaker, retries);
+            } catch (CircuitBreaker.OpenException e) {
+                throw new FetcherException(e.getMessage(), e);
+            } catch (IOException | URISyntaxException e) {
+                throw new FetcherException("Problem downloading from " + serviceUrl, e);
+            }
+            // The snippets are escaped HTML, which the importer expects unescaped
+            response = response.replace("&gt;", ">").replace("&lt;", "<");
+
+            try (RelatedArticlesMetrics.Timing timing = RelatedArticlesMetrics.getDefault().start(RelatedArticlesMetrics.Phase.PARSE)) {
+                MrDLibImporter importer = new MrDLibImporter();
+                if (!importer.isRecognizedFormat(new BufferedReader(new StringReader(response)))) {
+                    throw new FetcherException("Unrecognized response of " + serviceUrl);
+                }
+                return importer.importDatabase(new BufferedReader(new StringReader(response))).getDatabase().getEntries();
+            } catch (IOException e) {
+                throw new FetcherException("Could not parse the response of " + serviceUrl, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,282 @@
+package org.jabref.gui.entryeditor;
+
+import javafx.geometry.Orientation;
+import javafx.geometry.VPos;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.control.ScrollBar;
+import javafx.scene.control.Tooltip;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.input.ScrollEvent;
+import javafx.scene.layout.Pane;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.TextAlignment;
+
+import org.jabref.logic.l10n.Localization;
+
+/**
+ * Chart of recommendation rank against authors, drawn onto a single canvas.
+ * <p>
+ * In contrast to a {@link javafx.scene.chart.BubbleChart}, no scene graph node is created per data point, and axis
+ * labels are looked up in the reverse index of {@link AuthorFrequencies} instead of being searched for. Tooltips of
+ * data points are found by hit-testing only the points at the rank under the mouse.
+ * <p>
+ * The canvas never grows beyond the chart itself, as canvases larger than the maximum texture size are not rendered.
+ * If the author rows do not fit, the chart scrolls them by its own scroll bar and draws only the visible rows.
+ */
+public class RankAuthorChart extends Pane {
+
+    private static final Color BUBBLE_COLOR = Color.web("#07889b");
+    private static final Color LABEL_COLOR = Color.web("#e37222");
+    private static final Color AXIS_COLOR = Color.GRAY;
+
+    private static final double LEFT_MARGIN = 160;
+    private static final double RIGHT_MARGIN = 20;
+    private static final double TOP_MARGIN = 40;
+    private static final double BOTTOM_MARGIN = 40;
+    private static final double MIN_LABEL_SPACING = 14;
+    private static final double MIN_RADIUS = 3;
+    private static final double AUTHOR_ROW_HEIGHT = 18;
+    private static final int MAX_PREF_ROWS = 30;
+
+    private final Canvas canvas = new Canvas();
+    private final ScrollBar scrollBar = new ScrollBar();
+    private final RankAuthorData data;
+    private final AuthorFrequencies authors;
+    private final String title;
+    private final Tooltip pointTooltip = new Tooltip();
+    private boolean updatingScrollRange;
+
+    /**
+     * @param data Points of the chart. Authors are shown on the y-axis together with their frequencies, which determine
+     *             the bubble sizes
+     * @param title Name of the currently selected BibEntry
+     */
+    public RankAuthorChart(RankAuthorData data, String title) {
+        this.data = data;
+        this.authors = data.getAuthors();
+        this.title = title;
+
+        scrollBar.setOrientation(Orientation.VERTICAL);
+        scrollBar.setUnitIncrement(AUTHOR_ROW_HEIGHT);
+        scrollBar.setVisible(false);
+        scrollBar.valueProperty().addListener((observable, oldValue, newValue) -> {
+            if (!updatingScrollRange) {
+                draw();
+            }
+        });
+
+        getChildren().addAll(canvas, scrollBar);
+        Tooltip.install(this, new Tooltip(Localization.lang("You are shown this chart because you clicked \n\"" + title + "\"")));
+        canvas.setOnMouseMoved(this::showPointTooltip);
+        canvas.setOnMouseExited(event -> pointTooltip.hide());
+        canvas.setOnScroll(this::scroll);
+    }
+
+    /**
+     * Redraws the chart, e.g. after points have been added to its data.
+     */
+    public void refresh() {
+        if (updateScrollRange()) {
+            requestLayout();
+        }
+        draw();
+    }
+
+    @Override
+    protected double computePrefWidth(double height) {
+        return 500;
+    }
+
+    @Override
+    protected double computePrefHeight(double width) {
+        return TOP_MARGIN + BOTTOM_MARGIN + Math.max(200, Math.min(authors.size(), MAX_PREF_ROWS) * AUTHOR_ROW_HEIGHT);
+    }
+
+    @Override
+    protected void layoutChildren() {
+        updateScrollRange();
+        double scrollBarWidth = scrollBar.isVisible() ? scrollBar.prefWidth(-1) : 0;
+        double canvasWidth = Math.max(0, getWidth() - scrollBarWidth);
+        scrollBar.resizeRelocate(canvasWidth, TOP_MARGIN, scrollBarWidth, Math.max(0, getPlotHeight()));
+        if ((canvas.getWidth() != canvasWidth) || (canvas.getHeight() != getHeight())) {
+            canvas.setWidth(canvasWidth);
+            canvas.setHeight(getHeight());
+            draw();
+        }
+    }
+
+    /**
+     * Adapts the scroll bar to the number of authors and the height of the chart, keeping the visible rows in place.
+     * @return Whether the scroll bar was shown or hidden
+     */
+    private boolean updateScrollRange() {
+        double plotHeight = Math.max(0, getPlotHeight());
+        double overflow = Math.max(0, getContentHeight() - plotHeight);
+        double offset = Math.min(getScrollOffset(), overflow);
+        updatingScrollRange = true;
+        scrollBar.setMax(overflow);
+        scrollBar.setVisibleAmount(overflow * (plotHeight / Math.max(1, overflow + plotHeight)));
+        scrollBar.setBlockIncrement(plotHeight);
+        scrollBar.setValue(overflow - offset);
+        updatingScrollRange = false;
+        boolean visible = overflow > 0;
+        boolean changed = scrollBar.isVisible() != visible;
+        scrollBar.setVisible(visible);
+        return changed;
+    }
+
+    private void scroll(ScrollEvent event) {
+        if (scrollBar.isVisible()) {
+            double value = scrollBar.getValue() - event.getDeltaY();
+            scrollBar.setValue(Math.max(scrollBar.getMin(), Math.min(scrollBar.getMax(), value)));
+            event.consume();
+        }
+    }
+
+    /**
+     * @return Offset of the visible rows from the bottom of the author axis. The first author is at the bottom, so the
+     *         scroll bar is at its end when the offset is 0.
+     */
+    private double getScrollOffset() {
+        return scrollBar.getMax() - scrollBar.getValue();
+    }
+
+    private double getPlotHeight() {
+        return getHeight() - TOP_MARGIN - BOTTOM_MARGIN;
+    }
+
+    /**
+     * @return Height of all author rows, of which only the plot height is visible at a time
+     */
+    private double getContentHeight() {
+        return Math.max(getPlotHeight(), authors.size() * AUTHOR_ROW_HEIGHT);
+    }
+
+    private double getXStep() {
+        return (canvas.getWidth() - LEFT_MARGIN - RIGHT_MARGIN) / Math.max(1, data.getMaxRank());
+    }
+
+    private double getYStep() {
+        return getContentHeight() / Math.max(1, authors.size());
+    }
+
+    private double getX(int rank) {
+        return LEFT_MARGIN + ((rank - 0.5) * getXStep());
+    }
+
+    private double getY(int authorId) {
+        return (canvas.getHeight() - BOTTOM_MARGIN - ((authorId - 0.5) * getYStep())) + getScrollOffset();
+    }
+
+    /**
+     * @return Serial number of the lowest author row at least partly visible
+     */
+    private int getFirstVisibleAuthor() {
+        return Math.max(1, (int) Math.floor(getScrollOffset() / getYStep()) + 1);
+    }
+
+    /**
+     * @return Serial number of the highest author row at least partly visible
+     */
+    private int getLastVisibleAuthor() {
+        return Math.min(authors.size(), (int) Math.ceil((getScrollOffset() + getPlotHeight()) / getYStep()));
+    }
+
+    private double getRadius(int authorId) {
+        double maxRadius = Math.max(MIN_RADIUS, Math.min(getXStep(), getYStep()) / 2);
+        return Math.min(maxRadius, MIN_RADIUS + (authors.getFrequency(authorId) * 0.2 * maxRadius));
+    }
+
+    private void draw() {
+        try (RelatedArticlesMetrics.Timing timing = RelatedArticlesMetrics.getDefault().start(RelatedArticlesMetrics.Phase.CHART_BUILD)) {
+            drawPoints();
+        }
+    }
+
+    private void drawPoints() {
+        double width = canvas.getWidth();
+        double height = canvas.getHeight();
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        gc.clearRect(0, 0, width, height);
+        if ((width <= LEFT_MARGIN + RIGHT_MARGIN) || (height <= TOP_MARGIN + BOTTOM_MARGIN)) {
+            return;
+        }
+
+        Font font = Font.getDefault();
+        gc.setFont(font);
+        gc.setFill(LABEL_COLOR);
+        gc.setTextAlign(TextAlignment.CENTER);
+        gc.setTextBaseline(VPos.TOP);
+        gc.fillText(Localization.lang("Recommendation Rank against Authors"), width / 2, 5);
+
+        gc.setStroke(AXIS_COLOR);
+        gc.strokeLine(LEFT_MARGIN, TOP_MARGIN, LEFT_MARGIN, height - BOTTOM_MARGIN);
+        gc.strokeLine(LEFT_MARGIN, height - BOTTOM_MARGIN, width - RIGHT_MARGIN, height - BOTTOM_MARGIN);
+
+        // Only every n-th label is drawn if they would overlap otherwise
+        gc.setFill(Color.BLACK);
+        double xStep = getXStep();
+        int xLabelEvery = (int) Math.ceil((2 * MIN_LABEL_SPACING) / xStep);
+        for (int rank = 1; rank <= data.getMaxRank(); rank += xLabelEvery) {
+            gc.fillText(Integer.toString(rank), getX(rank), (height - BOTTOM_MARGIN) + 4);
+        }
+        gc.setFill(LABEL_COLOR);
+        gc.fillText(Localization.lang("Ranking"), LEFT_MARGIN + ((width - LEFT_MARGIN - RIGHT_MARGIN) / 2), height - 18);
+
+        gc.setFill(Color.BLACK);
+        gc.setTextAlign(TextAlignment.RIGHT);
+        gc.setTextBaseline(VPos.CENTER);
+        // Rows scrolled partly out of view are cut off at the axes
+        gc.save();
+        gc.beginPath();
+        gc.rect(0, TOP_MARGIN, width, height - TOP_MARGIN - BOTTOM_MARGIN);
+        gc.clip();
+        int firstAuthor = getFirstVisibleAuthor();
+        int lastAuthor = getLastVisibleAuthor();
+        int yLabelEvery = (int) Math.ceil(MIN_LABEL_SPACING / getYStep());
+        for (int authorId = firstAuthor - ((firstAuthor - 1) % yLabelEvery); authorId <= lastAuthor; authorId += yLabelEvery) {
+            gc.fillText(authors.getName(authorId), LEFT_MARGIN - 6, getY(authorId), LEFT_MARGIN - 10);
+        }
+
+        gc.setFill(BUBBLE_COLOR);
+        for (int authorId = firstAuthor; authorId <= lastAuthor; authorId++) {
+            double radius = getRadius(authorId);
+            double y = getY(authorId);
+            for (int point = data.getFirstOfAuthor(authorId); point >= 0; point = data.getNextOfAuthor(point)) {
+                gc.fillOval(getX(data.getRank(point)) - radius, y - radius, 2 * radius, 2 * radius);
+            }
+        }
+        gc.restore();
+    }
+
+    private void showPointTooltip(MouseEvent event) {
+        int point = findPoint(event.getX(), event.getY());
+        if (point < 0) {
+            pointTooltip.hide();
+            return;
+        }
+        pointTooltip.setText(data.getLabel(point));
+        pointTooltip.show(canvas, event.getScreenX() + 12, event.getScreenY() + 12);
+    }
+
+    /**
+     * @return Index of the data point at the given position, or -1 if there is none
+     */
+    private int findPoint(double x, double y) {
+        int rank = (int) Math.floor((x - LEFT_MARGIN) / getXStep()) + 1;
+        if ((rank < 1) || (rank > data.getMaxRank()) || (y < TOP_MARGIN) || (y > (canvas.getHeight() - BOTTOM_MARGIN))) {
+            return -1;
+        }
+        for (int point = data.getFirstOfRank(rank); point >= 0; point = data.getNextOfRank(point)) {
+            double radius = Math.max(getRadius(data.getAuthorId(point)), MIN_RADIUS + 2);
+            double dx = x - getX(data.getRank(point));
+            double dy = y - getY(data.getAuthorId(point));
+            if (((dx * dx) + (dy * dy)) <= (radius * radius)) {
+                return point;
+            }
+        }
+        return -1;
+    }
+}
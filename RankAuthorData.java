@@ -0,0 +1,129 @@
+package org.jabref.gui.entryeditor;
+
+import java.util.Arrays;
+
+/**
+ * Data points of the {@link RankAuthorChart}: the rank of each recommendation against each of its authors.
+ * <p>
+ * Points are collected as recommendations arrive, whether or not the chart is shown, so that the chart can be built
+ * on demand from them. They are stored column-wise, and points of the same rank and of the same author are chained, so
+ * that all points of a rank or an author are found without searching.
+ */
+public class RankAuthorData {
+
+    private final AuthorFrequencies authors = new AuthorFrequencies();
+
+    private int[] ranks = new int[16];
+    private int[] authorIds = new int[16];
+    private String[] labels = new String[16];
+    private int[] nextOfRank = new int[16];
+    private int[] firstOfRank = new int[16];
+    private int[] nextOfAuthor = new int[16];
+    private int[] firstOfAuthor = new int[16];
+    private int size;
+    private int maxRank;
+
+    public RankAuthorData() {
+        Arrays.fill(firstOfRank, -1);
+        Arrays.fill(firstOfAuthor, -1);
+    }
+
+    /**
+     * Adds a data point and counts the occurrence of the author.
+     * @param rank Rank of the recommendation, starting at 1
+     * @param author Author of the recommendation
+     * @param label Text shown in the tooltip of the point
+     */
+    public void add(int rank, AuthorName author, String label) {
+        if (size == ranks.length) {
+            ranks = Arrays.copyOf(ranks, size * 2);
+            authorIds = Arrays.copyOf(authorIds, size * 2);
+            labels = Arrays.copyOf(labels, size * 2);
+            nextOfRank = Arrays.copyOf(nextOfRank, size * 2);
+            nextOfAuthor = Arrays.copyOf(nextOfAuthor, size * 2);
+        }
+        if (rank >= firstOfRank.length) {
+            int oldLength = firstOfRank.length;
+            firstOfRank = Arrays.copyOf(firstOfRank, Math.max(rank + 1, oldLength * 2));
+            Arrays.fill(firstOfRank, oldLength, firstOfRank.length, -1);
+        }
+
+        int authorId = authors.add(author);
+        if (authorId >= firstOfAuthor.length) {
+            int oldLength = firstOfAuthor.length;
+            firstOfAuthor = Arrays.copyOf(firstOfAuthor, Math.max(authorId + 1, oldLength * 2));
+            Arrays.fill(firstOfAuthor, oldLength, firstOfAuthor.length, -1);
+        }
+
+        ranks[size] = rank;
+        authorIds[size] = authorId;
+        labels[size] = label;
+        nextOfRank[size] = firstOfRank[rank];
+        firstOfRank[rank] = size;
+        nextOfAuthor[size] = firstOfAuthor[authorId];
+        firstOfAuthor[authorId] = size;
+        size++;
+        maxRank = Math.max(maxRank, rank);
+    }
+
+    /**
+     * @return Authors on the y-axis together with their frequencies
+     */
+    public AuthorFrequencies getAuthors() {
+        return authors;
+    }
+
+    /**
+     * @return Number of data points
+     */
+    public int size() {
+        return size;
+    }
+
+    public int getMaxRank() {
+        return maxRank;
+    }
+
+    public int getRank(int point) {
+        return ranks[point];
+    }
+
+    /**
+     * @return Serial number of the author of the given point in {@link #getAuthors()}
+     */
+    public int getAuthorId(int point) {
+        return authorIds[point];
+    }
+
+    public String getLabel(int point) {
+        return labels[point];
+    }
+
+    /**
+     * @return The most recently added point of the given rank, or -1 if there is none
+     */
+    public int getFirstOfRank(int rank) {
+        return rank < firstOfRank.length ? firstOfRank[rank] : -1;
+    }
+
+    /**
+     * @return The point of the same rank added before the given one, or -1 if there is none
+     */
+    public int getNextOfRank(int point) {
+        return nextOfRank[point];
+    }
+
+    /**
+     * @return The most recently added point of the author with the given serial number, or -1 if there is none
+     */
+    public int getFirstOfAuthor(int authorId) {
+        return authorId < firstOfAuthor.length ? firstOfAuthor[authorId] : -1;
+    }
+
+    /**
+     * @return The point of the same author added before the given one, or -1 if there is none
+     */
+    public int getNextOfAuthor(int point) {
+        return nextOfAuthor[point];
+    }
+}
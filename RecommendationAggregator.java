@@ -0,0 +1,294 @@
+package org.jabref.gui.entryeditor;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jabref.model.entry.BibEntry;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Recommends related articles for several entries at once, e.g. a selection of the main table or a group.
+ * <p>
+ * The entries are split recursively into halves on a {@link ForkJoinPool} until every task fetches the
+ * recommendations of a single entry, and the partial results are merged while the tasks are joined. The number of
+ * concurrent fetches is bounded by the given parallelism, even if the pool adds threads while others wait for a join,
+ * so that a selection of hundreds of entries does not open hundreds of connections.
+ * <p>
+ * Recommendations are merged by reciprocal rank fusion: every entry contributes {@code 1 / (RANK_CONSTANT + rank)} to
+ * the score of each of its recommendations, thus articles recommended for many entries and at high ranks come first.
+ * Recommendations of the same title are merged, and the selected entries themselves are never recommended.
+ */
+public class RecommendationAggregator {
+
+    public static final int DEFAULT_PARALLELISM = 4;
+    public static final int DEFAULT_TOP_K = 50;
+    /** Damps the influence of the top ranks, the usual value of reciprocal rank fusion */
+    public static final int RANK_CONSTANT = 60;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RecommendationAggregator.class);
+
+    private final RecommendationSource source;
+    private final ForkJoinPool pool;
+    private final Semaphore fetchPermits;
+    private final int topK;
+
+    /**
+     * @param source Source of the recommendations of a single entry
+     * @param pool   Pool running the aggregation, see {@link #createPool(int)}
+     * @param parallelism Maximal number of concurrent fetches
+     * @param topK   Maximal number of merged recommendations
+     */
+    public RecommendationAggregator(RecommendationSource source, ForkJoinPool pool, int parallelism, int topK) {
+        this.source = source;
+        this.pool = pool;
+        this.fetchPermits = new Semaphore(parallelism);
+        this.topK = topK;
+    }
+
+    /**
+     * Creates a pool of daemon threads, which may be shared by several aggregators
+     */
+    public static ForkJoinPool createPool(int parallelism) {
+        return new ForkJoinPool(parallelism, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("RecommendationAggregation-" + thread.getPoolIndex());
+            thread.setDaemon(true);
+            return thread;
+        }, null, false);
+    }
+
+    /**
+     * Fetches the recommendations of the given entries in the background and merges them.
+     * @param entries Entries to recommend articles for
+     * @param ticket Ticket of the fetch. Once cancelled, no further recommendations are fetched.
+     * @param listener Informed on the worker threads after each entry
+     * @return The merged recommendations, best first. Completes exceptionally if no recommendations could be fetched
+     * for any entry because all fetches failed.
+     */
+    public CompletableFuture<List<BibEntry>> aggregate(List<BibEntry> entries, RelatedArticlesFetchScheduler.FetchTicket ticket,
+                                                       ProgressListener listener) {
+        Aggregation aggregation = new Aggregation(entries, ticket, listener);
+        return CompletableFuture.supplyAsync(aggregation::run, pool);
+    }
+
+    /**
+     * State of one call of {@link #aggregate(List, RelatedArticlesFetchScheduler.FetchTicket, ProgressListener)}
+     */
+    private class Aggregation {
+
+        private final List<BibEntry> entries;
+        private final RelatedArticlesFetchScheduler.FetchTicket ticket;
+        private final ProgressListener listener;
+        private final Set<String> selectedTitles = new HashSet<>();
+        private final AtomicInteger processed = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private volatile Exception lastFailure;
+
+        Aggregation(List<BibEntry> entries, RelatedArticlesFetchScheduler.FetchTicket ticket, ProgressListener listener) {
+            this.entries = entries;
+            this.ticket = ticket;
+            this.listener = listener;
+            for (BibEntry entry : entries) {
+                selectedTitles.add(titleKey(entry));
+            }
+        }
+
+        List<BibEntry> run() {
+            if (entries.isEmpty()) {
+                return new ArrayList<>();
+            }
+            Map<String, Candidate> candidates = new FetchTask(this, 0, entries.size()).invoke();
+            if ((failed.get() == entries.size()) && (lastFailure != null)) {
+                throw new CompletionException(lastFailure);
+            }
+            return selectTop(candidates);
+        }
+
+        /**
+         * Fetches the recommendations of a single entry and scores them by their rank
+         */
+        Map<String, Candidate> fetch(BibEntry entry) {
+            BlockingFetch fetch = new BlockingFetch(entry);
+            try {
+                // Lets the pool compensate for the blocked worker, so that other tasks keep splitting and fetching
+                ForkJoinPool.managedBlock(fetch);
+                if (fetch.failure != null) {
+                    throw fetch.failure;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failed.incrementAndGet();
+                lastFailure = e;
+            } catch (Exception e) {
+                LOGGER.debug("Could not fetch recommendations for " + entry.getTitle().orElse(""), e);
+                failed.incrementAndGet();
+                lastFailure = e;
+            }
+            listener.onProgress(processed.incrementAndGet(), entries.size());
+            return fetch.candidates;
+        }
+
+        /**
+         * Waits for a fetch permit and fetches the recommendations of a single entry
+         */
+        private class BlockingFetch implements ForkJoinPool.ManagedBlocker {
+
+            private final BibEntry entry;
+            private final Map<String, Candidate> candidates = new HashMap<>();
+            private Exception failure;
+            private boolean done;
+
+            BlockingFetch(BibEntry entry) {
+                this.entry = entry;
+            }
+
+            @Override
+            public boolean block() throws InterruptedException {
+                fetchPermits.acquire();
+                try {
+                    if (!ticket.isCancelled()) {
+                        source.fetch(entry, recommendations -> {
+                            for (BibEntry recommendation : recommendations) {
+                                String key = titleKey(recommendation);
+                                if (!key.isEmpty() && !selectedTitles.contains(key) && !candidates.containsKey(key)) {
+                                    candidates.put(key, new Candidate(recommendation, candidates.size() + 1));
+                                }
+                            }
+                            return !ticket.isCancelled();
+                        });
+                    }
+                } catch (Exception e) {
+                    failure = e;
+                } finally {
+                    fetchPermits.release();
+                }
+                done = true;
+                return true;
+            }
+
+            @Override
+            public boolean isReleasable() {
+                return done;
+            }
+        }
+    }
+
+    /**
+     * Fetches the recommendations of a range of the entries, splitting it until a single entry is left
+     */
+    private static class FetchTask extends RecursiveTask<Map<String, Candidate>> {
+
+        private final Aggregation aggregation;
+        private final int from;
+        private final int to;
+
+        FetchTask(Aggregation aggregation, int from, int to) {
+            this.aggregation = aggregation;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Map<String, Candidate> compute() {
+            if ((to - from) == 1) {
+                return aggregation.fetch(aggregation.entries.get(from));
+            }
+
+            int middle = (from + to) >>> 1;
+            FetchTask left = new FetchTask(aggregation, from, middle);
+            left.fork();
+            Map<String, Candidate> right = new FetchTask(aggregation, middle, to).compute();
+            return merge(left.join(), right);
+        }
+    }
+
+    /**
+     * Merges the smaller into the larger map of candidates
+     */
+    private static Map<String, Candidate> merge(Map<String, Candidate> first, Map<String, Candidate> second) {
+        Map<String, Candidate> larger = first.size() >= second.size() ? first : second;
+        Map<String, Candidate> smaller = larger == first ? second : first;
+        for (Map.Entry<String, Candidate> entry : smaller.entrySet()) {
+            larger.merge(entry.getKey(), entry.getValue(), Candidate::add);
+        }
+        return larger;
+    }
+
+    private List<BibEntry> selectTop(Map<String, Candidate> candidates) {
+        // Keeps the best k candidates, the worst of them at the head
+        PriorityQueue<Candidate> top = new PriorityQueue<>(topK + 1, Candidate.BY_RELEVANCE);
+        for (Candidate candidate : candidates.values()) {
+            top.add(candidate);
+            if (top.size() > topK) {
+                top.poll();
+            }
+        }
+
+        List<Candidate> sorted = new ArrayList<>(top);
+        sorted.sort(Candidate.BY_RELEVANCE.reversed());
+        List<BibEntry> result = new ArrayList<>(sorted.size());
+        for (Candidate candidate : sorted) {
+            result.add(candidate.recommendation);
+        }
+        return result;
+    }
+
+    private static String titleKey(BibEntry entry) {
+        return entry.getTitle().orElse("").trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * A recommended article together with its fused score
+     */
+    private static class Candidate {
+
+        static final Comparator<Candidate> BY_RELEVANCE = Comparator.<Candidate>comparingDouble(candidate -> candidate.score)
+                .thenComparingInt(candidate -> candidate.occurrences)
+                .thenComparingInt(candidate -> -candidate.bestRank);
+
+        private final BibEntry recommendation;
+        private double score;
+        private int occurrences;
+        private int bestRank;
+
+        Candidate(BibEntry recommendation, int rank) {
+            this.recommendation = recommendation;
+            this.score = 1.0 / (RANK_CONSTANT + rank);
+            this.occurrences = 1;
+            this.bestRank = rank;
+        }
+
+        Candidate add(Candidate other) {
+            score += other.score;
+            occurrences += other.occurrences;
+            bestRank = Math.min(bestRank, other.bestRank);
+            return this;
+        }
+    }
+
+    public interface ProgressListener {
+
+        /**
+         * Called after the recommendations of an entry have been fetched or could not be fetched
+         * @param processed Number of processed entries
+         * @param total Number of entries of the aggregation
+         */
+        void onProgress(int processed, int total);
+    }
+}
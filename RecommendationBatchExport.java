@@ -0,0 +1,471 @@
+package org.jabref.gui.entryeditor;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jabref.logic.util.BuildInfo;
+import org.jabref.logic.util.Version;
+import org.jabref.model.entry.BibEntry;
+import org.jabref.model.entry.FieldName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Command line export of the recommendations of all entries of a .bib file, without GUI.
+ * <p>
+ * Entries are streamed from the file and processed by a fixed number of workers, using the same recommendation
+ * source, cache and author lookup as the Related articles tab. At most a bounded number of entries is in flight: the
+ * reader blocks until the oldest of them has been written, so memory stays flat for libraries of any size. Results are
+ * appended to a JSON Lines file in the order of the input, one object per entry. A checkpoint holding the number of
+ * written entries and the length of the output is saved regularly, and a new run with the same files continues from
+ * it. Throughput is logged in entries per second.
+ * <p>
+ * Usage: {@code RecommendationBatchExport <input.bib> <output.jsonl> [--threads n] [--in-flight n]
+ * [--rate requests-per-second] [--authors] [--language code] [--checkpoint file]}. The services can be redirected by
+ * the system properties of {@link RecommendationEndpoints}.
+ */
+public class RecommendationBatchExport {
+
+    public static final int DEFAULT_CONCURRENCY = 4;
+    public static final int DEFAULT_MAX_IN_FLIGHT = 64;
+    public static final int CHECKPOINT_INTERVAL = 100;
+    /** Maximal number of authors of an entry whose papers are looked up */
+    public static final int MAX_LOOKUP_AUTHORS = 3;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RecommendationBatchExport.class);
+    private static final long PROGRESS_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+    private static final String CHECKPOINT_EXTENSION = ".checkpoint";
+
+    private final MrDLibRecommendationSource source;
+    private final Optional<AuthorLookupService> authorLookup;
+    private final TokenBucketRateLimiter rateLimiter;
+    private final int concurrency;
+    private final int maxInFlight;
+
+    /**
+     * @param source       Source of the recommendations
+     * @param authorLookup Service looking up further papers of the authors of each entry, if wanted
+     * @param rateLimiter  Limits the rate of requests to the recommendation and author lookup services
+     * @param concurrency  Number of entries processed at the same time
+     * @param maxInFlight  Maximal number of entries read but not yet written
+     */
+    public RecommendationBatchExport(MrDLibRecommendationSource source, Optional<AuthorLookupService> authorLookup,
+                                     TokenBucketRateLimiter rateLimiter, int concurrency, int maxInFlight) {
+        this.source = source;
+        this.authorLookup = authorLookup;
+        this.rateLimiter = rateLimiter;
+        this.concurrency = concurrency;
+        this.maxInFlight = Math.max(maxInFlight, concurrency);
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Usage: RecommendationBatchExport <input.bib> <output.jsonl> [--threads n] [--in-flight n] "
+                    + "[--rate requests-per-second] [--authors] [--language code] [--checkpoint file]");
+            System.exit(2);
+        }
+
+        Path input = Paths.get(args[0]);
+        Path output = Paths.get(args[1]);
+        Map<String, String> options = new HashMap<>();
+        for (int i = 2; i < args.length; i++) {
+            if ("--authors".equals(args[i])) {
+                options.put(args[i], "true");
+            } else if (args[i].startsWith("--") && ((i + 1) < args.length)) {
+                options.put(args[i], args[++i]);
+            } else {
+                System.err.println("Unknown option " + args[i]);
+                System.exit(2);
+            }
+        }
+
+        RecommendationEndpoints endpoints = RecommendationEndpoints.fromSystemProperties();
+        RecommendationHttpClient httpClient = RecommendationHttpClient.createDefault();
+        Optional<AuthorLookupService> authorLookup = options.containsKey("--authors")
+                ? Optional.of(new AuthorLookupService(httpClient, endpoints.getScholarUrl(), AuthorLookupService.DEFAULT_CONCURRENCY, AuthorLookupService.DEFAULT_TIME_TO_LIVE))
+                : Optional.empty();
+        String language = options.getOrDefault("--language", "en");
+        Version version = new BuildInfo().getVersion();
+        RecommendationCache cache = RecommendationCache.createDefault();
+        MrDLibRecommendationSource source = new MrDLibRecommendationSource(cache, httpClient, endpoints.getMrDLibUrl(),
+                () -> language, version);
+        RecommendationBatchExport export = new RecommendationBatchExport(
+                source,
+                authorLookup,
+                new TokenBucketRateLimiter(Double.parseDouble(options.getOrDefault("--rate", String.valueOf(RecommendationPrecomputeJob.DEFAULT_REQUESTS_PER_SECOND))), 1),
+                Integer.parseInt(options.getOrDefault("--threads", String.valueOf(DEFAULT_CONCURRENCY))),
+                Integer.parseInt(options.getOrDefault("--in-flight", String.valueOf(DEFAULT_MAX_IN_FLIGHT))));
+
+        int status = 0;
+        try {
+            Path checkpoint = options.containsKey("--checkpoint")
+                    ? Paths.get(options.get("--checkpoint"))
+                    : output.resolveSibling(output.getFileName() + CHECKPOINT_EXTENSION);
+            Summary summary = export.run(input, output, checkpoint);
+            System.out.println(summary);
+        } catch (IOException e) {
+            LOGGER.error("Export failed", e);
+            status = 1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            status = 1;
+        } finally {
+            authorLookup.ifPresent(AuthorLookupService::shutdown);
+            httpClient.close();
+        }
+        System.exit(status);
+    }
+
+    /**
+     * Exports the recommendations of all entries of the input, continuing from the checkpoint if there is one.
+     * @param input      The .bib file
+     * @param output     The JSON Lines file, which is truncated to the length stored in the checkpoint
+     * @param checkpoint File holding the progress of the export
+     * @return Summary of this run
+     * @throws IOException if reading the input or writing the output fails. The checkpoint stays valid.
+     */
+    public Summary run(Path input, Path output, Path checkpoint) throws IOException, InterruptedException {
+        Checkpoint start = Checkpoint.read(checkpoint);
+        if (start.getEntries() > 0) {
+            LOGGER.info("Continuing export after " + start.getEntries() + " entries");
+        }
+
+        AtomicInteger workerNumber = new AtomicInteger(1);
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency, runnable -> {
+            Thread thread = new Thread(runnable, "RecommendationBatchExport-" + workerNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        long startTime = System.nanoTime();
+
+        try (BibEntryStreamReader reader = new BibEntryStreamReader(Files.newBufferedReader(input, StandardCharsets.UTF_8));
+             OrderedWriter writer = new OrderedWriter(output, checkpoint, start, inFlight, startTime)) {
+            long index = 0;
+            Optional<BibEntry> next;
+            while ((next = reader.next()).isPresent()) {
+                if (index < start.getEntries()) {
+                    index++;
+                    continue;
+                }
+
+                // Blocks while the writer is behind, so that neither pending entries nor results pile up
+                inFlight.acquire();
+                writer.checkFailure();
+                long position = index++;
+                BibEntry entry = next.get();
+                workers.execute(() -> writer.complete(position, process(position, entry)));
+            }
+
+            workers.shutdown();
+            // Wait until all permits are back, i.e. all entries have been written
+            inFlight.acquire(maxInFlight);
+            inFlight.release(maxInFlight);
+            writer.checkFailure();
+            return new Summary(writer.getWritten() - start.getEntries(), writer.getFailed(), System.nanoTime() - startTime);
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    /**
+     * Fetches the recommendations and, if enabled, the papers of the authors of the given entry
+     * @return The result as a single line of JSON
+     */
+    private String process(long index, BibEntry entry) {
+        StringBuilder json = new StringBuilder(1024);
+        json.append("{\"index\":").append(index);
+        appendField(json, "key", entry.getCiteKeyOptional().orElse(""));
+        appendField(json, "title", entry.getTitle().orElse(""));
+
+        try {
+            rateLimiter.acquire();
+            List<BibEntry> recommendations = source.getRecommendations(entry);
+            json.append(",\"recommendations\":[");
+            for (int i = 0; i < recommendations.size(); i++) {
+                BibEntry recommendation = recommendations.get(i);
+                json.append(i == 0 ? "{" : ",{");
+                json.append("\"rank\":").append(i + 1);
+                appendField(json, "title", recommendation.getTitle().orElse(""));
+                appendField(json, "authors", recommendation.getField(FieldName.AUTHOR).orElse(""));
+                appendField(json, "year", recommendation.getField(FieldName.YEAR).orElse(""));
+                appendField(json, "url", recommendation.getField(FieldName.URL).orElse(""));
+                json.append('}');
+            }
+            json.append(']');
+
+            if (authorLookup.isPresent()) {
+                appendAuthorPapers(json, entry);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            appendField(json, "error", "Interrupted");
+        } catch (Exception e) {
+            LOGGER.debug("Could not export recommendations for " + entry.getTitle().orElse(""), e);
+            appendField(json, "error", String.valueOf(e.getMessage()));
+        }
+        return json.append('}').toString();
+    }
+
+    private void appendAuthorPapers(StringBuilder json, BibEntry entry) throws Exception {
+        List<String> names = new ArrayList<>();
+        for (AuthorName author : AuthorName.parseRecommendedAuthors(entry.getField(FieldName.AUTHOR).orElse(""))) {
+            if (names.size() == MAX_LOOKUP_AUTHORS) {
+                break;
+            }
+            names.add(author.getDisplayName());
+        }
+        if (names.isEmpty()) {
+            return;
+        }
+
+        rateLimiter.acquire();
+        Map<String, String> papers = authorLookup.get().lookup(String.join(";", names)).get();
+        json.append(",\"authorPapers\":[");
+        boolean first = true;
+        for (Map.Entry<String, String> paper : papers.entrySet()) {
+            json.append(first ? "{" : ",{");
+            first = false;
+            json.append("\"title\":");
+            appendString(json, paper.getKey());
+            appendField(json, "url", paper.getValue());
+            json.append('}');
+        }
+        json.append(']');
+    }
+
+    private static void appendField(StringBuilder json, String name, String value) {
+        json.append(",\"").append(name).append("\":");
+        appendString(json, value);
+    }
+
+    private static void appendString(StringBuilder json, String value) {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    json.append("\\\"");
+                    break;
+                case '\\':
+                    json.append("\\\\");
+                    break;
+                case '\n':
+                    json.append("\\n");
+                    break;
+                case '\r':
+                    json.append("\\r");
+                    break;
+                case '\t':
+                    json.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+            }
+        }
+        json.append('"');
+    }
+
+    /**
+     * Writes the results in the order of the input, although they are completed in any order. A permit of the in
+     * flight semaphore is released for every written result.
+     */
+    private static class OrderedWriter implements AutoCloseable {
+
+        private final FileChannel channel;
+        private final OutputStream out;
+        private final Path checkpointFile;
+        private final Semaphore inFlight;
+        private final long startTime;
+        private final long startEntries;
+        private final Map<Long, String> pending = new HashMap<>();
+        private long written;
+        private long offset;
+        private int failed;
+        private long lastProgress;
+        private IOException failure;
+
+        OrderedWriter(Path output, Path checkpointFile, Checkpoint start, Semaphore inFlight, long startTime) throws IOException {
+            this.channel = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            // Drop results written after the last checkpoint, they are produced again
+            channel.truncate(start.getOffset());
+            channel.position(start.getOffset());
+            this.out = Channels.newOutputStream(channel);
+            this.checkpointFile = checkpointFile;
+            this.inFlight = inFlight;
+            this.startTime = startTime;
+            this.startEntries = start.getEntries();
+            this.written = start.getEntries();
+            this.offset = start.getOffset();
+            this.lastProgress = startTime;
+        }
+
+        synchronized void complete(long index, String line) {
+            pending.put(index, line);
+            String next;
+            while ((next = pending.remove(written)) != null) {
+                try {
+                    if (failure == null) {
+                        write(next);
+                    }
+                } catch (IOException e) {
+                    failure = e;
+                }
+                written++;
+                inFlight.release();
+            }
+        }
+
+        private void write(String line) throws IOException {
+            byte[] bytes = (line + '\n').getBytes(StandardCharsets.UTF_8);
+            out.write(bytes);
+            offset += bytes.length;
+            if (line.contains(",\"error\":")) {
+                failed++;
+            }
+
+            if (((written + 1) % CHECKPOINT_INTERVAL) == 0) {
+                saveCheckpoint(written + 1);
+            }
+            long now = System.nanoTime();
+            if ((now - lastProgress) >= PROGRESS_INTERVAL_NANOS) {
+                lastProgress = now;
+                double seconds = (now - startTime) / 1e9;
+                LOGGER.info(String.format("Exported %d entries, %.1f entries/s", written + 1, (written + 1 - startEntries) / seconds));
+            }
+        }
+
+        private void saveCheckpoint(long entries) throws IOException {
+            channel.force(false);
+            new Checkpoint(entries, offset).write(checkpointFile);
+        }
+
+        synchronized void checkFailure() throws IOException {
+            if (failure != null) {
+                throw failure;
+            }
+        }
+
+        synchronized long getWritten() {
+            return written;
+        }
+
+        synchronized int getFailed() {
+            return failed;
+        }
+
+        @Override
+        public synchronized void close() throws IOException {
+            try {
+                if (failure == null) {
+                    saveCheckpoint(written);
+                }
+            } finally {
+                channel.close();
+            }
+        }
+    }
+
+    /**
+     * Progress of an export: the number of entries written and the length of the output containing them
+     */
+    static class Checkpoint {
+
+        private final long entries;
+        private final long offset;
+
+        Checkpoint(long entries, long offset) {
+            this.entries = entries;
+            this.offset = offset;
+        }
+
+        /**
+         * @return The stored checkpoint, or one at the beginning if there is none
+         */
+        static Checkpoint read(Path file) throws IOException {
+            try {
+                String[] parts = new String(Files.readAllBytes(file), StandardCharsets.UTF_8).trim().split(" ");
+                return new Checkpoint(Long.parseLong(parts[0]), Long.parseLong(parts[1]));
+            } catch (NoSuchFileException e) {
+                return new Checkpoint(0, 0);
+            } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                throw new IOException("Invalid checkpoint " + file, e);
+            }
+        }
+
+        void write(Path file) throws IOException {
+            Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+            Files.write(temporary, (entries + " " + offset).getBytes(StandardCharsets.UTF_8));
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        long getEntries() {
+            return entries;
+        }
+
+        long getOffset() {
+            return offset;
+        }
+    }
+
+    public static class Summary {
+
+        private final long entries;
+        private final int failed;
+        private final long nanos;
+
+        Summary(long entries, int failed, long nanos) {
+            this.entries = entries;
+            this.failed = failed;
+            this.nanos = nanos;
+        }
+
+        /**
+         * @return Number of entries exported in this run, including failed ones
+         */
+        public long getEntries() {
+            return entries;
+        }
+
+        /**
+         * @return Number of entries whose recommendations could not be fetched
+         */
+        public int getFailed() {
+            return failed;
+        }
+
+        public double getEntriesPerSecond() {
+            return nanos == 0 ? 0 : entries / (nanos / 1e9);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Exported %d entries (%d failed) in %.1f s, %.1f entries/s",
+                    entries, failed, nanos / 1e9, getEntriesPerSecond());
+        }
+    }
+}
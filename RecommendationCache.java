@@ -0,0 +1,425 @@
+package org.jabref.gui.entryeditor;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.jabref.model.entry.BibEntry;
+import org.jabref.model.entry.FieldName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Two-tier cache for related article recommendations.
+ * <p>
+ * Recommendations are keyed by a fingerprint of the title, abstract and DOI of the entry they were requested for.
+ * The first tier is a bounded in-memory LRU map, the second tier is a directory on disk which survives restarts.
+ * Both tiers expire their content after the configured time to live. Expired recommendations are kept for a while
+ * longer and can still be retrieved by {@link #getStale(BibEntry)}, so that the last good results can be shown while
+ * fresh ones are fetched, or while the service is unavailable.
+ */
+public class RecommendationCache {
+
+    public static final int DEFAULT_MEMORY_CAPACITY = 256;
+    public static final Duration DEFAULT_TIME_TO_LIVE = Duration.ofDays(7);
+    public static final Duration DEFAULT_MAX_STALENESS = Duration.ofDays(30);
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RecommendationCache.class);
+    private static final int FORMAT_VERSION = 1;
+    private static final String FILE_EXTENSION = ".rec";
+
+    private final Map<String, CachedRecommendations> memory;
+    private final Optional<Path> directory;
+    private final long timeToLiveMillis;
+    private final long retentionMillis;
+
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong diskHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+    private final AtomicLong staleHits = new AtomicLong();
+
+    /**
+     * @param memoryCapacity maximum number of recommendation lists kept in memory
+     * @param directory      directory of the persistent tier, or {@link Optional#empty()} to keep everything in memory
+     * @param timeToLive     time after which cached recommendations are no longer served
+     */
+    public RecommendationCache(int memoryCapacity, Optional<Path> directory, Duration timeToLive) {
+        this(memoryCapacity, directory, timeToLive, Duration.ZERO);
+    }
+
+    /**
+     * @param memoryCapacity maximum number of recommendation lists kept in memory
+     * @param directory      directory of the persistent tier, or {@link Optional#empty()} to keep everything in memory
+     * @param timeToLive     time after which cached recommendations are no longer served by {@link #get(BibEntry)}
+     * @param maxStaleness   time after expiry during which recommendations are still served by {@link #getStale(BibEntry)}
+     */
+    public RecommendationCache(int memoryCapacity, Optional<Path> directory, Duration timeToLive, Duration maxStaleness) {
+        this.memory = new LinkedHashMap<String, CachedRecommendations>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedRecommendations> eldest) {
+                return size() > memoryCapacity;
+            }
+        };
+        this.directory = directory;
+        this.timeToLiveMillis = timeToLive.toMillis();
+        this.retentionMillis = timeToLive.plus(maxStaleness).toMillis();
+    }
+
+    /**
+     * Creates a cache using the default capacity and time to live, persisted in the user's JabRef directory.
+     */
+    public static RecommendationCache createDefault() {
+        return new RecommendationCache(DEFAULT_MEMORY_CAPACITY, Optional.of(getDefaultDirectory()), DEFAULT_TIME_TO_LIVE,
+                DEFAULT_MAX_STALENESS);
+    }
+
+    public static Path getDefaultDirectory() {
+        return Paths.get(System.getProperty("user.home"), ".jabref", "recommendations");
+    }
+
+    /**
+     * Computes a stable fingerprint of the given entry based on its title, abstract and DOI.
+     * Whitespace and case differences do not change the fingerprint.
+     */
+    public static String fingerprint(BibEntry entry) {
+        StringBuilder key = new StringBuilder();
+        key.append(normalize(entry.getField(FieldName.TITLE).orElse(""))).append('\u0000');
+        key.append(normalize(entry.getField(FieldName.ABSTRACT).orElse(""))).append('\u0000');
+        key.append(normalize(entry.getField(FieldName.DOI).orElse("")));
+        return hash(key.toString());
+    }
+
+    /**
+     * Returns the hexadecimal SHA-256 hash of the given text.
+     */
+    static String hash(String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(text.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(hash.length * 2);
+            for (byte b : hash) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 is guaranteed to be available on every Java platform
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String normalize(String value) {
+        return value.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Returns the cached recommendations for the given entry, looking at the memory tier first and the disk tier second.
+     * This may perform disk I/O and thus should not be called on the JavaFX thread.
+     */
+    public Optional<List<BibEntry>> get(BibEntry entry) {
+        String key = fingerprint(entry);
+        long now = System.currentTimeMillis();
+
+        CachedRecommendations cached;
+        synchronized (memory) {
+            cached = memory.get(key);
+        }
+        // Counted once per entry evicted for its age, not per lookup of an expired entry
+        boolean evicted = false;
+        if (cached != null) {
+            if (!cached.isExpired(now, timeToLiveMillis)) {
+                memoryHits.incrementAndGet();
+                return Optional.of(cached.getRecommendations());
+            }
+            if (!cached.isExpired(now, retentionMillis)) {
+                // Both tiers are written together, thus the disk holds no fresher copy. The stale one is served from
+                // memory by getStale.
+                misses.incrementAndGet();
+                return Optional.empty();
+            }
+            synchronized (memory) {
+                memory.remove(key);
+            }
+            evicted = true;
+        }
+
+        Optional<CachedRecommendations> stored = read(key);
+        if (stored.isPresent()) {
+            if (!stored.get().isExpired(now, timeToLiveMillis)) {
+                diskHits.incrementAndGet();
+                synchronized (memory) {
+                    memory.put(key, stored.get());
+                }
+                return Optional.of(stored.get().getRecommendations());
+            }
+            if (stored.get().isExpired(now, retentionMillis)) {
+                delete(key);
+                evicted = true;
+            } else {
+                // Kept in memory for getStale and later lookups, which thus do not read the disk again
+                synchronized (memory) {
+                    memory.put(key, stored.get());
+                }
+            }
+        }
+
+        if (evicted) {
+            expirations.incrementAndGet();
+        }
+        misses.incrementAndGet();
+        return Optional.empty();
+    }
+
+    /**
+     * Returns the recommendations for the given entry even if they expired, as long as they are not older than the
+     * maximal staleness. This may perform disk I/O and thus should not be called on the JavaFX thread.
+     */
+    public Optional<List<BibEntry>> getStale(BibEntry entry) {
+        String key = fingerprint(entry);
+        long now = System.currentTimeMillis();
+
+        CachedRecommendations cached;
+        synchronized (memory) {
+            cached = memory.get(key);
+        }
+        Optional<CachedRecommendations> stored = (cached == null) ? read(key) : Optional.of(cached);
+        if (stored.isPresent() && !stored.get().isExpired(now, retentionMillis)) {
+            staleHits.incrementAndGet();
+            synchronized (memory) {
+                memory.putIfAbsent(key, stored.get());
+            }
+            return Optional.of(stored.get().getRecommendations());
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Checks whether fresh recommendations for the given entry are cached, without loading them or counting a lookup.
+     */
+    public boolean contains(BibEntry entry) {
+        String key = fingerprint(entry);
+        long now = System.currentTimeMillis();
+
+        synchronized (memory) {
+            CachedRecommendations cached = memory.get(key);
+            if ((cached != null) && !cached.isExpired(now, timeToLiveMillis)) {
+                return true;
+            }
+        }
+
+        if (!directory.isPresent()) {
+            return false;
+        }
+        Path file = directory.get().resolve(key + FILE_EXTENSION);
+        try {
+            return Files.exists(file) && ((now - Files.getLastModifiedTime(file).toMillis()) <= timeToLiveMillis);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Stores the recommendations for the given entry in both tiers.
+     */
+    public void put(BibEntry entry, List<BibEntry> recommendations) {
+        String key = fingerprint(entry);
+        CachedRecommendations cached = new CachedRecommendations(System.currentTimeMillis(), recommendations);
+        synchronized (memory) {
+            memory.put(key, cached);
+        }
+        write(key, cached);
+    }
+
+    /**
+     * Removes all cached recommendations from both tiers.
+     */
+    public void clear() {
+        synchronized (memory) {
+            memory.clear();
+        }
+        directory.ifPresent(dir -> {
+            if (!Files.isDirectory(dir)) {
+                return;
+            }
+            List<Path> files = new ArrayList<>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, "*" + FILE_EXTENSION)) {
+                stream.forEach(files::add);
+                for (Path file : files) {
+                    Files.deleteIfExists(file);
+                }
+            } catch (IOException e) {
+                LOGGER.warn("Could not clear recommendation cache in " + dir, e);
+            }
+        });
+    }
+
+    public long getMemoryHits() {
+        return memoryHits.get();
+    }
+
+    public long getDiskHits() {
+        return diskHits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * @return Number of recommendation lists evicted because they outlived the time to live and the maximal staleness.
+     * Lists replaced by newer ones or dropped from the memory tier for lack of capacity are not counted.
+     */
+    public long getExpirations() {
+        return expirations.get();
+    }
+
+    /**
+     * @return Number of expired recommendation lists served by {@link #getStale(BibEntry)}
+     */
+    public long getStaleHits() {
+        return staleHits.get();
+    }
+
+    /**
+     * Returns the ratio of lookups that were served from either tier, or 0 if there were no lookups yet.
+     */
+    public double getHitRatio() {
+        long hits = memoryHits.get() + diskHits.get();
+        long total = hits + misses.get();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    @Override
+    public String toString() {
+        return "RecommendationCache{" +
+                "memoryHits=" + memoryHits +
+                ", diskHits=" + diskHits +
+                ", misses=" + misses +
+                ", expirations=" + expirations +
+                ", staleHits=" + staleHits +
+                '}';
+    }
+
+    private Optional<CachedRecommendations> read(String key) {
+        if (!directory.isPresent()) {
+            return Optional.empty();
+        }
+        Path file = directory.get().resolve(key + FILE_EXTENSION);
+        if (!Files.exists(file)) {
+            return Optional.empty();
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != FORMAT_VERSION) {
+                return Optional.empty();
+            }
+            long createdAt = in.readLong();
+            int size = in.readInt();
+            List<BibEntry> recommendations = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                BibEntry recommendation = new BibEntry(in.readUTF());
+                int fields = in.readInt();
+                for (int j = 0; j < fields; j++) {
+                    recommendation.setField(in.readUTF(), in.readUTF());
+                }
+                recommendations.add(recommendation);
+            }
+            return Optional.of(new CachedRecommendations(createdAt, recommendations));
+        } catch (IOException e) {
+            LOGGER.warn("Could not read cached recommendations from " + file, e);
+            delete(key);
+            return Optional.empty();
+        }
+    }
+
+    private void write(String key, CachedRecommendations cached) {
+        if (!directory.isPresent()) {
+            return;
+        }
+        Path file = directory.get().resolve(key + FILE_EXTENSION);
+        Path temporary = null;
+        try {
+            Files.createDirectories(directory.get());
+            temporary = Files.createTempFile(directory.get(), key, ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                out.writeInt(FORMAT_VERSION);
+                out.writeLong(cached.getCreatedAt());
+                out.writeInt(cached.getRecommendations().size());
+                for (BibEntry recommendation : cached.getRecommendations()) {
+                    out.writeUTF(recommendation.getType());
+                    Map<String, String> fields = recommendation.getFieldMap();
+                    out.writeInt(fields.size());
+                    for (Map.Entry<String, String> field : fields.entrySet()) {
+                        out.writeUTF(field.getKey());
+                        out.writeUTF(field.getValue());
+                    }
+                }
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOGGER.warn("Could not persist recommendations to " + file, e);
+        } finally {
+            // Left behind if writing or moving failed
+            if (temporary != null) {
+                try {
+                    Files.deleteIfExists(temporary);
+                } catch (IOException e) {
+                    LOGGER.debug("Could not delete temporary file " + temporary, e);
+                }
+            }
+        }
+    }
+
+    private void delete(String key) {
+        directory.ifPresent(dir -> {
+            try {
+                Files.deleteIfExists(dir.resolve(key + FILE_EXTENSION));
+            } catch (IOException e) {
+                LOGGER.debug("Could not delete cached recommendations " + key, e);
+            }
+        });
+    }
+
+    private static class CachedRecommendations {
+
+        private final long createdAt;
+        private final List<BibEntry> recommendations;
+
+        CachedRecommendations(long createdAt, List<BibEntry> recommendations) {
+            this.createdAt = createdAt;
+            this.recommendations = Collections.unmodifiableList(new ArrayList<>(recommendations));
+        }
+
+        long getCreatedAt() {
+            return createdAt;
+        }
+
+        List<BibEntry> getRecommendations() {
+            return recommendations;
+        }
+
+        boolean isExpired(long now, long timeToLiveMillis) {
+            return now - createdAt > timeToLiveMillis;
+        }
+    }
+}
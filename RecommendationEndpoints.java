@@ -0,0 +1,54 @@
+package org.jabref.gui.entryeditor;
+
+/**
+ * Base URLs of the web services queried by the Related articles tab.
+ * <p>
+ * By default, the public services are used. Both can be redirected by system properties, e.g. to the local stub
+ * servers of the load scenarios or to a staging deployment:
+ * {@code -Djabref.recommendations.mrdlib.url=http://localhost:8080 -Djabref.recommendations.scholar.url=http://localhost:8080}
+ */
+public class RecommendationEndpoints {
+
+    public static final String MR_DLIB_URL_PROPERTY = "jabref.recommendations.mrdlib.url";
+    public static final String SCHOLAR_URL_PROPERTY = "jabref.recommendations.scholar.url";
+    /** The public service, as queried by {@link org.jabref.logic.importer.fetcher.MrDLibFetcher} */
+    public static final String DEFAULT_MR_DLIB_URL = "http://api.mr-dlib.org";
+    public static final String DEFAULT_SCHOLAR_URL = "https://scholar.google.com";
+
+    private final String mrDLibUrl;
+    private final String scholarUrl;
+
+    /**
+     * @param mrDLibUrl  Base URL of a Mr. DLib compatible service
+     * @param scholarUrl Base URL of Google Scholar
+     */
+    public RecommendationEndpoints(String mrDLibUrl, String scholarUrl) {
+        this.mrDLibUrl = trimTrailingSlash(mrDLibUrl);
+        this.scholarUrl = trimTrailingSlash(scholarUrl);
+    }
+
+    /**
+     * @return The endpoints configured by the system properties, falling back to the public services
+     */
+    public static RecommendationEndpoints fromSystemProperties() {
+        return new RecommendationEndpoints(System.getProperty(MR_DLIB_URL_PROPERTY, DEFAULT_MR_DLIB_URL),
+                System.getProperty(SCHOLAR_URL_PROPERTY, DEFAULT_SCHOLAR_URL));
+    }
+
+    private static String trimTrailingSlash(String url) {
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+
+    public String getMrDLibUrl() {
+        return mrDLibUrl;
+    }
+
+    public String getScholarUrl() {
+        return scholarUrl;
+    }
+
+    @Override
+    public String toString() {
+        return "RecommendationEndpoints{mrDLib=" + mrDLibUrl + ", scholar=" + scholarUrl + '}';
+    }
+}
@@ -0,0 +1,225 @@
+package org.jabref.gui.entryeditor;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Append-only log of the re-rank operations of the user, to be used for tuning the ranking later on.
+ * <p>
+ * Every operation is stored as a record of {@link #RECORD_SIZE} bytes: the time, hashes of the titles of the selected
+ * entry and of the moved recommendation, the action and the positions before and after. Recording only enqueues the
+ * event, so it never blocks the JavaFX thread. A single writer thread appends the queued events in batches, thus the
+ * cost of recording does not depend on the size of the log. If the writer falls behind, further events are dropped.
+ */
+public class RecommendationFeedbackLog {
+
+    public static final int RECORD_SIZE = 32;
+    public static final int DEFAULT_QUEUE_CAPACITY = 1024;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RecommendationFeedbackLog.class);
+
+    private final Path file;
+    private final BlockingQueue<FeedbackEvent> queue;
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final LongAdder dropped = new LongAdder();
+    private final ExecutorService writer;
+
+    public RecommendationFeedbackLog(Path file, int queueCapacity) {
+        this.file = file;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "RecommendationFeedbackLog");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+    }
+
+    /**
+     * @return The log stored in the JabRef directory of the user
+     */
+    public static RecommendationFeedbackLog createDefault() {
+        return new RecommendationFeedbackLog(getDefaultFile(), DEFAULT_QUEUE_CAPACITY);
+    }
+
+    public static Path getDefaultFile() {
+        return Paths.get(System.getProperty("user.home"), ".jabref", "recommendation-feedback.log");
+    }
+
+    /**
+     * Hashes a title the way it is stored in the log
+     */
+    public static long hashTitle(String title) {
+        return TermTokenizer.hash(title.trim().toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Queues the event for writing. Returns immediately.
+     */
+    public void record(FeedbackEvent event) {
+        if (!queue.offer(event)) {
+            dropped.increment();
+            return;
+        }
+        if (flushScheduled.compareAndSet(false, true)) {
+            writer.execute(this::flush);
+        }
+    }
+
+    /**
+     * @return Number of events dropped because the writer fell behind
+     */
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * Reads all events of the given log in the order they were recorded. A truncated last record is ignored, as are
+     * records of unknown operations, e.g. written by a newer version.
+     */
+    public static void read(Path file, Consumer<FeedbackEvent> consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE * 256);
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                while (buffer.remaining() >= RECORD_SIZE) {
+                    FeedbackEvent.read(buffer).ifPresent(consumer);
+                }
+                buffer.compact();
+            }
+        } catch (NoSuchFileException e) {
+            // Nothing recorded yet
+        }
+    }
+
+    private void flush() {
+        flushScheduled.set(false);
+        List<FeedbackEvent> events = new ArrayList<>(queue.size());
+        queue.drainTo(events);
+        if (events.isEmpty()) {
+            return;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(events.size() * RECORD_SIZE);
+        for (FeedbackEvent event : events) {
+            event.write(buffer);
+        }
+        buffer.flip();
+        try {
+            Files.createDirectories(file.getParent());
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Could not write recommendation feedback to " + file, e);
+        }
+    }
+
+    public enum Action {
+        MOVE_UP,
+        MOVE_DOWN,
+        ROTATE_UP,
+        ROTATE_DOWN
+    }
+
+    /**
+     * A single re-rank operation of the user
+     */
+    public static class FeedbackEvent {
+
+        private final long timestamp;
+        private final long entryHash;
+        private final long recommendationHash;
+        private final Action action;
+        private final int from;
+        private final int to;
+
+        /**
+         * @param timestamp Time of the operation in milliseconds since the epoch
+         * @param entryHash Hash of the title of the selected entry, see {@link #hashTitle(String)}
+         * @param recommendationHash Hash of the title of the moved recommendation
+         * @param action The operation
+         * @param from Position of the recommendation before the operation
+         * @param to Position of the recommendation after the operation
+         */
+        public FeedbackEvent(long timestamp, long entryHash, long recommendationHash, Action action, int from, int to) {
+            this.timestamp = timestamp;
+            this.entryHash = entryHash;
+            this.recommendationHash = recommendationHash;
+            this.action = action;
+            this.from = from;
+            this.to = to;
+        }
+
+        private static Optional<FeedbackEvent> read(ByteBuffer buffer) {
+            long timestamp = buffer.getLong();
+            long entryHash = buffer.getLong();
+            long recommendationHash = buffer.getLong();
+            int action = buffer.getShort() & 0xFFFF;
+            int from = buffer.getShort() & 0xFFFF;
+            int to = buffer.getShort() & 0xFFFF;
+            buffer.getShort();
+            if (action >= Action.values().length) {
+                return Optional.empty();
+            }
+            return Optional.of(new FeedbackEvent(timestamp, entryHash, recommendationHash, Action.values()[action], from, to));
+        }
+
+        private void write(ByteBuffer buffer) {
+            buffer.putLong(timestamp);
+            buffer.putLong(entryHash);
+            buffer.putLong(recommendationHash);
+            buffer.putShort((short) action.ordinal());
+            buffer.putShort((short) Math.min(from, 0xFFFF));
+            buffer.putShort((short) Math.min(to, 0xFFFF));
+            // Reserved
+            buffer.putShort((short) 0);
+        }
+
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        public long getEntryHash() {
+            return entryHash;
+        }
+
+        public long getRecommendationHash() {
+            return recommendationHash;
+        }
+
+        public Action getAction() {
+            return action;
+        }
+
+        public int getFrom() {
+            return from;
+        }
+
+        public int getTo() {
+            return to;
+        }
+    }
+}
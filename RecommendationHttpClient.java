@@ -0,0 +1,263 @@
+package org.jabref.gui.entryeditor;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.jabref.logic.net.URLDownload;
+
+import org.apache.http.Header;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.util.EntityUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * HTTP client shared by the recommendation sources of the Related articles tab.
+ * <p>
+ * Connections are pooled and kept alive, so that a session making hundreds of lookups does not pay for a TLS handshake
+ * per request. Responses are requested gzip compressed. Responses carrying an ETag or a Last-Modified header are
+ * remembered and revalidated by conditional requests, thus unchanged pages are not transferred again. The number of
+ * concurrent requests per host is limited, and failed requests are retried with jittered exponential backoff. Requests
+ * guarded by a {@link CircuitBreaker} report every attempt to it, so that the breaker sees failures as they happen.
+ */
+public class RecommendationHttpClient {
+
+    public static final int DEFAULT_MAX_CONNECTIONS = 20;
+    public static final int DEFAULT_MAX_CONNECTIONS_PER_HOST = 4;
+    public static final int DEFAULT_MAX_RETRIES = 3;
+    public static final Duration DEFAULT_INITIAL_BACKOFF = Duration.ofMillis(250);
+    public static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(10);
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RecommendationHttpClient.class);
+    private static final long MAX_BACKOFF_MILLIS = TimeUnit.SECONDS.toMillis(8);
+    private static final int VALIDATOR_CACHE_CAPACITY = 256;
+
+    private final CloseableHttpClient client;
+    private final int maxConnectionsPerHost;
+    private final int maxRetries;
+    private final long initialBackoffMillis;
+    private final Map<String, Semaphore> hostPermits = new ConcurrentHashMap<>();
+    private final Map<String, CachedResponse> validatedResponses;
+
+    /**
+     * @param maxConnections        maximal number of pooled connections
+     * @param maxConnectionsPerHost maximal number of concurrent requests to the same host
+     * @param maxRetries            number of retries of a failed request
+     * @param initialBackoff        upper bound of the wait before the first retry, doubled for every further retry
+     * @param timeout               timeout for connecting and for waiting on data
+     */
+    public RecommendationHttpClient(int maxConnections, int maxConnectionsPerHost, int maxRetries, Duration initialBackoff,
+                                    Duration timeout) {
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(maxConnections);
+        connectionManager.setDefaultMaxPerRoute(maxConnectionsPerHost);
+        connectionManager.setValidateAfterInactivity((int) TimeUnit.SECONDS.toMillis(2));
+
+        int timeoutMillis = (int) timeout.toMillis();
+        RequestConfig requestConfig = RequestConfig.custom()
+                                                   .setConnectTimeout(timeoutMillis)
+                                                   .setConnectionRequestTimeout(timeoutMillis)
+                                                   .setSocketTimeout(timeoutMillis)
+                                                   .build();
+
+        // Content compression is enabled by default: gzip and deflate are requested and transparently decoded
+        this.client = HttpClients.custom()
+                                 .setConnectionManager(connectionManager)
+                                 .setDefaultRequestConfig(requestConfig)
+                                 .setUserAgent(URLDownload.USER_AGENT)
+                                 .disableAutomaticRetries()
+                                 .evictIdleConnections(1, TimeUnit.MINUTES)
+                                 .build();
+        this.maxConnectionsPerHost = maxConnectionsPerHost;
+        this.maxRetries = maxRetries;
+        this.initialBackoffMillis = initialBackoff.toMillis();
+        this.validatedResponses = Collections.synchronizedMap(new LinkedHashMap<String, CachedResponse>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedResponse> eldest) {
+                return size() > VALIDATOR_CACHE_CAPACITY;
+            }
+        });
+    }
+
+    /**
+     * Creates a client using the default limits
+     */
+    public static RecommendationHttpClient createDefault() {
+        return new RecommendationHttpClient(DEFAULT_MAX_CONNECTIONS, DEFAULT_MAX_CONNECTIONS_PER_HOST, DEFAULT_MAX_RETRIES,
+                DEFAULT_INITIAL_BACKOFF, DEFAULT_TIMEOUT);
+    }
+
+    /**
+     * Downloads the given URL. Requests failing with an I/O error, a server error or too many requests are retried.
+     * @return Body of the response, decoded using the charset of the response or UTF-8
+     * @throws IOException if the request failed after all retries or was answered with a client error
+     */
+    public String get(String url) throws IOException {
+        return get(url, Optional.empty(), maxRetries);
+    }
+
+    /**
+     * Downloads the given URL, making every attempt through the given circuit breaker. Retrying stops as soon as the
+     * breaker opens, so that a failing service holds the calling thread for at most one attempt once it is known to fail.
+     * @param retries Number of retries of a failed request, e.g. 0 for a request the user is waiting for, or
+     *                {@link #getMaxRetries()}
+     * @return Body of the response, decoded using the charset of the response or UTF-8
+     * @throws CircuitBreaker.OpenException if the breaker is open
+     * @throws IOException if the request failed after all retries or was answered with a client error
+     */
+    public String get(String url, CircuitBreaker circuitBreaker, int retries) throws IOException {
+        return get(url, Optional.of(circuitBreaker), retries);
+    }
+
+    /**
+     * @return Number of retries of a failed request made by {@link #get(String)}
+     */
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    private String get(String url, Optional<CircuitBreaker> circuitBreaker, int retries) throws IOException {
+        URI uri = URI.create(url);
+        Semaphore permits = hostPermits.computeIfAbsent(uri.getHost() == null ? "" : uri.getHost(),
+                host -> new Semaphore(maxConnectionsPerHost));
+
+        IOException lastFailure = null;
+        for (int attempt = 0; attempt <= retries; attempt++) {
+            if (attempt > 0) {
+                sleep(getBackoffMillis(attempt));
+            }
+
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for " + uri.getHost());
+            }
+            try {
+                if (circuitBreaker.isPresent()) {
+                    return circuitBreaker.get().execute(() -> execute(url));
+                }
+                return execute(url);
+            } catch (NonRetryableException | CircuitBreaker.OpenException e) {
+                throw e;
+            } catch (IOException e) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw e;
+                }
+                lastFailure = e;
+                LOGGER.debug("Attempt " + (attempt + 1) + " to download " + url + " failed", e);
+            } finally {
+                permits.release();
+            }
+        }
+        throw lastFailure;
+    }
+
+    private String execute(String url) throws IOException {
+        HttpGet request = new HttpGet(url);
+        CachedResponse cached = validatedResponses.get(url);
+        if (cached != null) {
+            if (cached.eTag != null) {
+                request.setHeader(HttpHeaders.IF_NONE_MATCH, cached.eTag);
+            }
+            if (cached.lastModified != null) {
+                request.setHeader(HttpHeaders.IF_MODIFIED_SINCE, cached.lastModified);
+            }
+        }
+
+        try (CloseableHttpResponse response = client.execute(request)) {
+            int status = response.getStatusLine().getStatusCode();
+            if ((status == HttpStatus.SC_NOT_MODIFIED) && (cached != null)) {
+                EntityUtils.consumeQuietly(response.getEntity());
+                return cached.body;
+            }
+            if ((status == 429) || (status >= HttpStatus.SC_INTERNAL_SERVER_ERROR)) {
+                EntityUtils.consumeQuietly(response.getEntity());
+                throw new IOException("Server answered " + response.getStatusLine() + " for " + url);
+            }
+            if (status >= HttpStatus.SC_BAD_REQUEST) {
+                EntityUtils.consumeQuietly(response.getEntity());
+                throw new NonRetryableException("Server answered " + response.getStatusLine() + " for " + url);
+            }
+
+            String body = response.getEntity() == null ? "" : EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8);
+            String eTag = getHeader(response, HttpHeaders.ETAG);
+            String lastModified = getHeader(response, HttpHeaders.LAST_MODIFIED);
+            if ((eTag != null) || (lastModified != null)) {
+                validatedResponses.put(url, new CachedResponse(eTag, lastModified, body));
+            }
+            return body;
+        }
+    }
+
+    /**
+     * Exponential backoff with full jitter: a random wait up to the doubled bound of the previous attempt
+     */
+    long getBackoffMillis(int attempt) {
+        long bound = Math.min(MAX_BACKOFF_MILLIS, initialBackoffMillis << Math.min(attempt - 1, 20));
+        return ThreadLocalRandom.current().nextLong(bound + 1);
+    }
+
+    /**
+     * Closes all pooled connections. The client cannot be used afterwards.
+     */
+    public void close() {
+        try {
+            client.close();
+        } catch (IOException e) {
+            LOGGER.debug("Could not close HTTP client", e);
+        }
+    }
+
+    private static String getHeader(CloseableHttpResponse response, String name) {
+        Header header = response.getFirstHeader(name);
+        return header == null ? null : header.getValue();
+    }
+
+    private static void sleep(long millis) throws InterruptedIOException {
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while backing off");
+        }
+    }
+
+    private static class CachedResponse {
+
+        private final String eTag;
+        private final String lastModified;
+        private final String body;
+
+        CachedResponse(String eTag, String lastModified, String body) {
+            this.eTag = eTag;
+            this.lastModified = lastModified;
+            this.body = body;
+        }
+    }
+
+    private static class NonRetryableException extends IOException {
+
+        NonRetryableException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package org.jabref.gui.entryeditor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jabref.model.entry.BibEntry;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Fetches the recommendations of many entries in the background, e.g. to warm the cache for a whole library.
+ * <p>
+ * Entries whose recommendations are already cached are skipped. The remaining entries are fetched by a bounded number
+ * of workers, and the rate of requests is limited to not overload the recommendation service. The job can be paused,
+ * resumed and cancelled at any time and reports its progress to a listener.
+ */
+public class RecommendationPrecomputeJob {
+
+    public static final int DEFAULT_CONCURRENCY = 2;
+    public static final double DEFAULT_REQUESTS_PER_SECOND = 2;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RecommendationPrecomputeJob.class);
+
+    private final MrDLibRecommendationSource source;
+    private final RecommendationCache cache;
+    private final TokenBucketRateLimiter rateLimiter;
+    private final int concurrency;
+    private final ProgressListener listener;
+
+    private final Object pauseLock = new Object();
+    private final AtomicInteger nextEntry = new AtomicInteger();
+    private final AtomicInteger processed = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private final AtomicInteger runningWorkers = new AtomicInteger();
+    private volatile List<BibEntry> entries = new ArrayList<>();
+    private volatile boolean paused;
+    private volatile boolean cancelled;
+    private ExecutorService executor;
+
+    /**
+     * @param source      Source whose recommendations are precomputed, storing its results in the given cache
+     * @param cache       Cache used to skip entries whose recommendations are already known
+     * @param concurrency Maximal number of concurrent requests
+     * @param rateLimiter Limits the rate of requests
+     * @param listener    Is informed about the progress on the worker threads
+     */
+    public RecommendationPrecomputeJob(MrDLibRecommendationSource source, RecommendationCache cache, int concurrency,
+                                       TokenBucketRateLimiter rateLimiter, ProgressListener listener) {
+        this.source = source;
+        this.cache = cache;
+        this.concurrency = concurrency;
+        this.rateLimiter = rateLimiter;
+        this.listener = listener;
+    }
+
+    /**
+     * Starts precomputing the recommendations of the given entries. Does nothing if the job is already running.
+     */
+    public synchronized void start(List<BibEntry> entriesToProcess) {
+        if (isRunning()) {
+            return;
+        }
+
+        entries = new ArrayList<>(entriesToProcess);
+        nextEntry.set(0);
+        processed.set(0);
+        failed.set(0);
+        paused = false;
+        cancelled = false;
+
+        listener.onProgress(0, entries.size(), 0);
+        executor = Executors.newFixedThreadPool(concurrency, runnable -> {
+            Thread thread = new Thread(runnable, "RecommendationPrecompute");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+        runningWorkers.set(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            executor.execute(this::work);
+        }
+        executor.shutdown();
+    }
+
+    public boolean isRunning() {
+        return runningWorkers.get() > 0;
+    }
+
+    public boolean isPaused() {
+        return paused;
+    }
+
+    public void pause() {
+        paused = true;
+    }
+
+    public void resume() {
+        synchronized (pauseLock) {
+            paused = false;
+            pauseLock.notifyAll();
+        }
+    }
+
+    /**
+     * Stops the job. Requests already sent are completed, but no further ones are made.
+     */
+    public void cancel() {
+        cancelled = true;
+        resume();
+    }
+
+    private void work() {
+        try {
+            int index;
+            while (!cancelled && ((index = nextEntry.getAndIncrement()) < entries.size())) {
+                waitWhilePaused();
+                if (cancelled) {
+                    return;
+                }
+
+                BibEntry entry = entries.get(index);
+                if (!cache.contains(entry)) {
+                    rateLimiter.acquire();
+                    try {
+                        source.getRecommendations(entry);
+                    } catch (Exception e) {
+                        LOGGER.debug("Could not precompute recommendations for " + entry.getTitle().orElse(""), e);
+                        failed.incrementAndGet();
+                    }
+                }
+                listener.onProgress(processed.incrementAndGet(), entries.size(), failed.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (runningWorkers.decrementAndGet() == 0) {
+                listener.onFinished(processed.get(), entries.size(), failed.get());
+            }
+        }
+    }
+
+    private void waitWhilePaused() throws InterruptedException {
+        synchronized (pauseLock) {
+            while (paused && !cancelled) {
+                pauseLock.wait();
+            }
+        }
+    }
+
+    public interface ProgressListener {
+
+        /**
+         * Called after an entry has been processed
+         * @param processed Number of processed entries, including skipped and failed ones
+         * @param total Number of entries of the job
+         * @param failed Number of entries whose recommendations could not be fetched
+         */
+        void onProgress(int processed, int total, int failed);
+
+        /**
+         * Called once the job has finished or was cancelled
+         */
+        void onFinished(int processed, int total, int failed);
+    }
+}
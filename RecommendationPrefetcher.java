@@ -0,0 +1,174 @@
+package org.jabref.gui.entryeditor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+import org.jabref.model.entry.BibEntry;
+import org.jabref.model.entry.FieldName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Speculatively fetches the recommendations of entries the user is likely to look at next, e.g. the neighbours of the
+ * selected entry in the main table.
+ * <p>
+ * Prefetching runs on a single low priority thread and never starts a request while a foreground fetch is running.
+ * Every call to {@link #prefetch(List)} replaces the work still pending from the previous call, and requests are only
+ * made as long as the network budget allows it. Optionally, the word clouds of the prefetched entries are rendered too.
+ */
+public class RecommendationPrefetcher {
+
+    public static final int DEFAULT_DISTANCE = 2;
+    public static final double DEFAULT_REQUESTS_PER_MINUTE = 20;
+    public static final int DEFAULT_BURST = 4;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RecommendationPrefetcher.class);
+    private static final long FOREGROUND_POLL_MILLIS = 50;
+
+    private final MrDLibRecommendationSource source;
+    private final RecommendationCache cache;
+    private final TokenBucketRateLimiter networkBudget;
+    private final Optional<WordCloudRenderer> wordCloudRenderer;
+    private final BooleanSupplier foregroundBusy;
+    private final ExecutorService executor;
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * @param source            Source whose recommendations are prefetched, storing its results in the given cache
+     * @param cache             Cache used to skip entries whose recommendations are already known
+     * @param networkBudget     Limits the requests made for prefetching. Entries exceeding the budget are skipped.
+     * @param wordCloudRenderer Renderer used to pre-render the word clouds of prefetched entries, if present
+     * @param foregroundBusy    Tells whether a foreground fetch is running, which takes precedence over prefetching
+     */
+    public RecommendationPrefetcher(MrDLibRecommendationSource source, RecommendationCache cache,
+                                    TokenBucketRateLimiter networkBudget, Optional<WordCloudRenderer> wordCloudRenderer,
+                                    BooleanSupplier foregroundBusy) {
+        this.source = source;
+        this.cache = cache;
+        this.networkBudget = networkBudget;
+        this.wordCloudRenderer = wordCloudRenderer;
+        this.foregroundBusy = foregroundBusy;
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "RecommendationPrefetcher");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+    }
+
+    /**
+     * Determines the entries around the given one, the closest first.
+     * @param entries Entries in the order they are shown to the user
+     * @param entry The currently selected entry
+     * @param distance Number of entries taken on each side
+     */
+    public static List<BibEntry> getNeighbours(List<BibEntry> entries, BibEntry entry, int distance) {
+        int index = -1;
+        for (int i = 0; i < entries.size(); i++) {
+            if (entries.get(i) == entry) {
+                index = i;
+                break;
+            }
+        }
+        if (index < 0) {
+            return Collections.emptyList();
+        }
+
+        List<BibEntry> neighbours = new ArrayList<>(2 * distance);
+        for (int offset = 1; offset <= distance; offset++) {
+            if ((index + offset) < entries.size()) {
+                neighbours.add(entries.get(index + offset));
+            }
+            if ((index - offset) >= 0) {
+                neighbours.add(entries.get(index - offset));
+            }
+        }
+        return neighbours;
+    }
+
+    /**
+     * Replaces the pending prefetch work by the given entries. Ignored once the prefetcher is shut down.
+     */
+    public void prefetch(List<BibEntry> entries) {
+        if (executor.isShutdown()) {
+            return;
+        }
+        long current = generation.incrementAndGet();
+        List<BibEntry> work = new ArrayList<>(entries);
+        executor.execute(() -> {
+            for (BibEntry entry : work) {
+                if (!waitForForeground(current)) {
+                    return;
+                }
+                prefetch(entry);
+            }
+        });
+    }
+
+    /**
+     * Drops all pending prefetch work
+     */
+    public void cancel() {
+        generation.incrementAndGet();
+    }
+
+    /**
+     * Drops all pending prefetch work and stops the prefetching thread once a request in progress has returned.
+     */
+    public void shutdown() {
+        cancel();
+        executor.shutdownNow();
+    }
+
+    private void prefetch(BibEntry entry) {
+        if (!cache.contains(entry)) {
+            if (!networkBudget.tryAcquire()) {
+                return;
+            }
+            try {
+                source.getRecommendations(entry);
+            } catch (Exception e) {
+                LOGGER.debug("Could not prefetch recommendations for " + entry.getTitle().orElse(""), e);
+                return;
+            }
+        }
+
+        // Word clouds of entries without abstract depend on the recommendations and their order of arrival
+        wordCloudRenderer.ifPresent(renderer -> entry.getField(FieldName.ABSTRACT)
+                                                     .filter(abstractText -> !abstractText.isEmpty())
+                                                     .ifPresent(abstractText -> {
+                                                         try {
+                                                             renderer.render(Collections.singletonList(abstractText));
+                                                         } catch (Exception e) {
+                                                             LOGGER.debug("Could not pre-render word cloud", e);
+                                                         }
+                                                     }));
+    }
+
+    /**
+     * Waits until no foreground fetch is running.
+     * @return false if the work of the given generation was replaced in the meantime
+     */
+    private boolean waitForForeground(long workGeneration) {
+        try {
+            while (foregroundBusy.getAsBoolean()) {
+                if (generation.get() != workGeneration) {
+                    return false;
+                }
+                TimeUnit.MILLISECONDS.sleep(FOREGROUND_POLL_MILLIS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        return generation.get() == workGeneration;
+    }
+}
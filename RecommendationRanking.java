@@ -0,0 +1,162 @@
+package org.jabref.gui.entryeditor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import javafx.collections.ObservableListBase;
+
+/**
+ * Rank order of the recommendations table, re-ranked in place by the up and down buttons.
+ * <p>
+ * The items are kept in a ring buffer, so rotating the whole ranking only moves the start of the ring. Every re-rank
+ * operation fires a single change consisting of one removal and one addition, thus the table keeps its items and its
+ * selection and only updates the affected rows. Must only be used on the JavaFX thread.
+ */
+public class RecommendationRanking<T> extends ObservableListBase<T> {
+
+    private Object[] items = new Object[16];
+    private int head;
+    private int size;
+
+    /**
+     * Moves the first item to the end, so that all other items move up by one. Takes constant time.
+     */
+    public void rotateUp() {
+        if (size < 2) {
+            return;
+        }
+        T first = get(0);
+        int end = index(size);
+        // If the ring is full, the slot after the last item is the first one and only the head moves
+        items[end] = first;
+        if (end != head) {
+            items[head] = null;
+        }
+        head = index(1);
+
+        beginChange();
+        nextRemove(0, first);
+        nextAdd(size - 1, size);
+        endChange();
+    }
+
+    /**
+     * Moves the last item to the front, so that all other items move down by one. Takes constant time.
+     */
+    public void rotateDown() {
+        if (size < 2) {
+            return;
+        }
+        T last = get(size - 1);
+        int end = index(size - 1);
+        head = index(items.length - 1);
+        items[head] = last;
+        if (end != head) {
+            items[end] = null;
+        }
+
+        beginChange();
+        nextRemove(size - 1, last);
+        nextAdd(0, 1);
+        endChange();
+    }
+
+    /**
+     * Moves a single item to another position, shifting the items in between by one. Takes time proportional to the
+     * distance of the move.
+     * @param from Current position of the item
+     * @param to New position of the item
+     */
+    public void move(int from, int to) {
+        checkIndex(from);
+        checkIndex(to);
+        if (from == to) {
+            return;
+        }
+
+        T item = get(from);
+        int step = from < to ? 1 : -1;
+        for (int i = from; i != to; i += step) {
+            items[index(i)] = items[index(i + step)];
+        }
+        items[index(to)] = item;
+
+        beginChange();
+        nextRemove(from, item);
+        nextAdd(to, to + 1);
+        endChange();
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends T> added) {
+        if (added.isEmpty()) {
+            return false;
+        }
+        ensureCapacity(size + added.size());
+        int from = size;
+        for (T item : added) {
+            items[index(size)] = item;
+            size++;
+        }
+
+        beginChange();
+        nextAdd(from, size);
+        endChange();
+        return true;
+    }
+
+    @Override
+    public boolean add(T item) {
+        return addAll(Arrays.asList(item));
+    }
+
+    @Override
+    public void clear() {
+        if (size == 0) {
+            return;
+        }
+        List<T> removed = new ArrayList<>(this);
+        beginChange();
+        nextRemove(0, removed);
+        Arrays.fill(items, null);
+        head = 0;
+        size = 0;
+        endChange();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        checkIndex(index);
+        return (T) items[index(index)];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    private int index(int position) {
+        return (head + position) % items.length;
+    }
+
+    private void checkIndex(int index) {
+        if ((index < 0) || (index >= size)) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= items.length) {
+            return;
+        }
+        Object[] grown = new Object[Math.max(capacity, items.length * 2)];
+        for (int i = 0; i < size; i++) {
+            grown[i] = items[index(i)];
+        }
+        items = grown;
+        head = 0;
+    }
+}
@@ -0,0 +1,298 @@
+package org.jabref.gui.entryeditor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import org.jabref.model.database.BibDatabase;
+import org.jabref.model.database.event.EntryAddedEvent;
+import org.jabref.model.database.event.EntryRemovedEvent;
+import org.jabref.model.entry.BibEntry;
+import org.jabref.model.entry.FieldName;
+import org.jabref.model.entry.event.EntryChangedEvent;
+
+import com.google.common.eventbus.Subscribe;
+
+/**
+ * Reorders recommendations of remote services by their similarity to the library of the user.
+ * <p>
+ * Every entry of the library is turned into a sparse term vector by hashing its terms into {@link #DIMENSIONS}
+ * signed buckets. The normalized vectors are summed up into a dense profile of the library, which is kept up to date
+ * incrementally like {@link LocalRecommendationIndex}. A recommendation is scored by the cosine similarity of its term
+ * vector with the profile, by how many of its authors occur in the library and by how often its venue does. Its rank
+ * in the server order is blended in, so that recommendations without any local signal keep their relative order.
+ * Scoring works on primitive arrays only and takes a few microseconds per recommendation.
+ */
+public class RecommendationReRanker {
+
+    public static final int DIMENSIONS = 1 << 12;
+
+    private static final int TITLE_WEIGHT = 2;
+    private static final float TEXT_WEIGHT = 0.5f;
+    private static final float AUTHOR_WEIGHT = 0.2f;
+    private static final float VENUE_WEIGHT = 0.1f;
+    private static final float SERVER_RANK_WEIGHT = 0.2f;
+    /** Number of shared authors, and of library entries in the same venue, that give the full signal */
+    private static final float SATURATION = 2;
+
+    private final BibDatabase database;
+    private final AuthorIndex authorIndex;
+    private final TermTokenizer tokenizer;
+
+    private final float[] profile = new float[DIMENSIONS];
+    private final Map<BibEntry, SparseVector> entryVectors = new IdentityHashMap<>();
+    private final Map<BibEntry, String> entryVenues = new IdentityHashMap<>();
+    private final Map<String, Integer> venueCounts = new HashMap<>();
+
+    private final Set<BibEntry> pendingUpdates = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Set<BibEntry> pendingRemovals = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    // Term weights of the vector being built, by bucket
+    private final float[] buckets = new float[DIMENSIONS];
+    private final boolean[] touched = new boolean[DIMENSIONS];
+    private int[] touchedBuckets = new int[64];
+    private int touchedCount;
+    private int termWeight;
+
+    public RecommendationReRanker(BibDatabase database, AuthorIndex authorIndex, TermTokenizer tokenizer) {
+        this.database = database;
+        this.authorIndex = authorIndex;
+        this.tokenizer = tokenizer;
+        synchronized (pendingUpdates) {
+            pendingUpdates.addAll(database.getEntries());
+        }
+        database.registerListener(this);
+    }
+
+    /**
+     * Stops following the changes of the database.
+     */
+    public void close() {
+        database.unregisterListener(this);
+    }
+
+    @Subscribe
+    public void listen(EntryAddedEvent event) {
+        markDirty(event.getBibEntry());
+    }
+
+    @Subscribe
+    public void listen(EntryChangedEvent event) {
+        markDirty(event.getBibEntry());
+    }
+
+    @Subscribe
+    public void listen(EntryRemovedEvent event) {
+        synchronized (pendingUpdates) {
+            pendingUpdates.remove(event.getBibEntry());
+            pendingRemovals.add(event.getBibEntry());
+        }
+    }
+
+    private void markDirty(BibEntry entry) {
+        synchronized (pendingUpdates) {
+            pendingRemovals.remove(entry);
+            pendingUpdates.add(entry);
+        }
+    }
+
+    /**
+     * Wraps the given source, so that each batch of its recommendations is re-ranked on the fetching thread before it
+     * is handed on.
+     */
+    public RecommendationSource wrap(RecommendationSource source) {
+        return (entry, sink) -> source.fetch(entry, recommendations -> sink.accept(reRank(recommendations)));
+    }
+
+    /**
+     * Brings the library profile up to date with the database. This is done implicitly by {@link #reRank(List)}, but
+     * may be called beforehand on a background thread to avoid paying for the initial vectors in the first call.
+     */
+    public synchronized void update() {
+        List<BibEntry> updates;
+        List<BibEntry> removals;
+        synchronized (pendingUpdates) {
+            updates = new ArrayList<>(pendingUpdates);
+            removals = new ArrayList<>(pendingRemovals);
+            pendingUpdates.clear();
+            pendingRemovals.clear();
+        }
+
+        for (BibEntry entry : removals) {
+            remove(entry);
+        }
+        for (BibEntry entry : updates) {
+            remove(entry);
+            add(entry);
+        }
+    }
+
+    /**
+     * Sorts the given recommendations by their similarity to the library, the most similar one first.
+     * @param recommendations Recommendations in the order of the server
+     * @return A new list with the same recommendations
+     */
+    public synchronized List<BibEntry> reRank(List<BibEntry> recommendations) {
+        try (RelatedArticlesMetrics.Timing timing = RelatedArticlesMetrics.getDefault().start(RelatedArticlesMetrics.Phase.RE_RANK)) {
+            update();
+            int count = recommendations.size();
+            if (count < 2) {
+                return new ArrayList<>(recommendations);
+            }
+
+            float profileNorm = norm(profile);
+            long[] order = new long[count];
+            for (int i = 0; i < count; i++) {
+                float score = score(recommendations.get(i), profileNorm) + (SERVER_RANK_WEIGHT * (count - i) / count);
+                // Scores are non-negative, thus their bits sort like the scores. Ties keep the server order.
+                order[i] = ((long) (Integer.MAX_VALUE - Float.floatToIntBits(score)) << 32) | i;
+            }
+            Arrays.sort(order);
+
+            List<BibEntry> result = new ArrayList<>(count);
+            for (long position : order) {
+                result.add(recommendations.get((int) position));
+            }
+            return result;
+        }
+    }
+
+    private float score(BibEntry recommendation, float profileNorm) {
+        float text = 0;
+        if (profileNorm > 0) {
+            SparseVector vector = vectorize(recommendation);
+            float dot = 0;
+            for (int i = 0; i < vector.buckets.length; i++) {
+                dot += vector.weights[i] * profile[vector.buckets[i]];
+            }
+            // Term vectors are normalized
+            text = Math.max(0, dot / profileNorm);
+        }
+
+        int sharedAuthors = 0;
+        for (AuthorName author : AuthorName.parseRecommendedAuthors(recommendation.getField(FieldName.AUTHOR).orElse(""))) {
+            if (authorIndex.getEntryCount(author) > 0) {
+                sharedAuthors++;
+            }
+        }
+
+        String venue = getVenue(recommendation);
+        int venueEntries = venue.isEmpty() ? 0 : venueCounts.getOrDefault(venue, 0);
+
+        return (TEXT_WEIGHT * text)
+                + (AUTHOR_WEIGHT * Math.min(1, sharedAuthors / SATURATION))
+                + (VENUE_WEIGHT * Math.min(1, venueEntries / SATURATION));
+    }
+
+    private void add(BibEntry entry) {
+        SparseVector vector = vectorize(entry);
+        for (int i = 0; i < vector.buckets.length; i++) {
+            profile[vector.buckets[i]] += vector.weights[i];
+        }
+        entryVectors.put(entry, vector);
+
+        String venue = getVenue(entry);
+        if (!venue.isEmpty()) {
+            entryVenues.put(entry, venue);
+            venueCounts.merge(venue, 1, Integer::sum);
+        }
+    }
+
+    private void remove(BibEntry entry) {
+        SparseVector vector = entryVectors.remove(entry);
+        if (vector == null) {
+            return;
+        }
+        for (int i = 0; i < vector.buckets.length; i++) {
+            profile[vector.buckets[i]] -= vector.weights[i];
+        }
+
+        String venue = entryVenues.remove(entry);
+        if (venue != null) {
+            venueCounts.computeIfPresent(venue, (key, count) -> count == 1 ? null : count - 1);
+        }
+    }
+
+    /**
+     * Hashes the terms of title, abstract and keywords into a normalized sparse vector. Term frequencies are damped
+     * logarithmically.
+     */
+    private SparseVector vectorize(BibEntry entry) {
+        touchedCount = 0;
+        termWeight = TITLE_WEIGHT;
+        tokenizer.tokenize(entry.getField(FieldName.TITLE).orElse(""), this::addTerm);
+        termWeight = 1;
+        tokenizer.tokenize(entry.getField(FieldName.ABSTRACT).orElse(""), this::addTerm);
+        tokenizer.tokenize(entry.getField(FieldName.KEYWORDS).orElse(""), this::addTerm);
+
+        int[] vectorBuckets = new int[touchedCount];
+        float[] weights = new float[touchedCount];
+        int size = 0;
+        double squares = 0;
+        for (int i = 0; i < touchedCount; i++) {
+            int bucket = touchedBuckets[i];
+            float frequency = buckets[bucket];
+            buckets[bucket] = 0;
+            touched[bucket] = false;
+            if (frequency != 0) {
+                vectorBuckets[size] = bucket;
+                weights[size] = Math.signum(frequency) * (float) (1 + Math.log(Math.abs(frequency)));
+                squares += weights[size] * weights[size];
+                size++;
+            }
+        }
+        float norm = (float) Math.sqrt(squares);
+        for (int i = 0; i < size; i++) {
+            weights[i] /= norm;
+        }
+        return new SparseVector(Arrays.copyOf(vectorBuckets, size), Arrays.copyOf(weights, size));
+    }
+
+    private void addTerm(long hash, CharSequence term) {
+        int bucket = (int) (hash ^ (hash >>> 32)) & (DIMENSIONS - 1);
+        if (!touched[bucket]) {
+            touched[bucket] = true;
+            if (touchedCount == touchedBuckets.length) {
+                touchedBuckets = Arrays.copyOf(touchedBuckets, touchedCount * 2);
+            }
+            touchedBuckets[touchedCount++] = bucket;
+        }
+        // The sign spreads colliding terms around zero instead of adding them up
+        buckets[bucket] += hash < 0 ? -termWeight : termWeight;
+    }
+
+    private static float norm(float[] vector) {
+        double squares = 0;
+        for (float value : vector) {
+            squares += value * value;
+        }
+        return (float) Math.sqrt(squares);
+    }
+
+    private static String getVenue(BibEntry entry) {
+        return entry.getField(FieldName.JOURNAL)
+                    .orElse(entry.getField(FieldName.BOOKTITLE).orElse(""))
+                    .trim()
+                    .toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Term vector of one entry: the weights of the non-zero buckets
+     */
+    private static class SparseVector {
+
+        private final int[] buckets;
+        private final float[] weights;
+
+        SparseVector(int[] buckets, float[] weights) {
+            this.buckets = buckets;
+            this.weights = weights;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package org.jabref.gui.entryeditor;
+
+import java.util.List;
+
+import org.jabref.model.entry.BibEntry;
+
+/**
+ * Source of related articles for an entry, e.g. a web service or the open database.
+ * <p>
+ * Sources push their recommendations into a {@link Sink} as soon as they have them, in as many batches as they like,
+ * so that the first results can be shown before the slowest source has finished.
+ */
+@FunctionalInterface
+public interface RecommendationSource {
+
+    /**
+     * Fetches the recommendations for the given entry. This is called on a background thread and may block.
+     * @param entry The entry to find related articles for
+     * @param sink Receiver of the recommendations
+     */
+    void fetch(BibEntry entry, Sink sink) throws Exception;
+
+    @FunctionalInterface
+    interface Sink {
+
+        /**
+         * Receives the next batch of recommendations.
+         * @return false if the consumer is no longer interested in further recommendations
+         */
+        boolean accept(List<BibEntry> recommendations);
+    }
+}
@@ -0,0 +1,140 @@
+package org.jabref.gui.entryeditor;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import javafx.application.Platform;
+
+import org.jabref.Globals;
+import org.jabref.gui.util.BackgroundTask;
+import org.jabref.model.entry.BibEntry;
+import org.jabref.model.entry.FieldName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Queries several {@link RecommendationSource}s in parallel and streams their results to the JavaFX thread.
+ * <p>
+ * Every batch is handed over as soon as its source delivers it. Recommendations already delivered by another source,
+ * identified by their title, are dropped. Once the fetch ticket is cancelled, sources are asked to stop and nothing more is
+ * delivered.
+ */
+public class RecommendationStream {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RecommendationStream.class);
+
+    private final List<RecommendationSource> sources;
+    private final AtomicInteger runningFetches = new AtomicInteger();
+
+    public RecommendationStream(List<RecommendationSource> sources) {
+        this.sources = sources;
+    }
+
+    /**
+     * @return true while any source is still fetching, including sources of cancelled fetches
+     */
+    public boolean isBusy() {
+        return runningFetches.get() > 0;
+    }
+
+    /**
+     * @return Number of source fetches submitted but not yet finished, including those still waiting for a thread
+     */
+    public int getRunningFetches() {
+        return runningFetches.get();
+    }
+
+    /**
+     * Starts fetching recommendations for the given entry. Must be called on the JavaFX thread.
+     * @param entry The entry to find related articles for
+     * @param ticket Ticket of the fetch, used to stop streaming once the user moved on
+     * @param onRecommendations Receives each new batch of recommendations on the JavaFX thread
+     * @param onFailure Receives the failure of each failed source on the JavaFX thread, unless the ticket was cancelled
+     * @param onFinished Invoked on the JavaFX thread after all sources have finished, unless the ticket was cancelled
+     */
+    public void start(BibEntry entry, RelatedArticlesFetchScheduler.FetchTicket ticket,
+                      Consumer<List<BibEntry>> onRecommendations, Consumer<Exception> onFailure, Runnable onFinished) {
+        // Only accessed on the JavaFX thread
+        Set<String> deliveredKeys = new HashSet<>();
+        AtomicInteger runningSources = new AtomicInteger(sources.size());
+        runningFetches.addAndGet(sources.size());
+
+        RecommendationSource.Sink sink = recommendations -> {
+            if (ticket.isCancelled()) {
+                return false;
+            }
+            Platform.runLater(() -> {
+                if (ticket.isCancelled()) {
+                    return;
+                }
+                List<BibEntry> newRecommendations = new ArrayList<>(recommendations.size());
+                for (BibEntry recommendation : recommendations) {
+                    if (deliveredKeys.add(getDeduplicationKey(recommendation))) {
+                        newRecommendations.add(recommendation);
+                    }
+                }
+                if (!newRecommendations.isEmpty()) {
+                    onRecommendations.accept(newRecommendations);
+                }
+            });
+            return true;
+        };
+
+        for (RecommendationSource source : sources) {
+            BackgroundTask
+                    .wrap(() -> {
+                        try {
+                            if (!ticket.isCancelled()) {
+                                source.fetch(entry, sink);
+                            }
+                        } catch (Exception e) {
+                            // Delivered before the finish, which is queued by the finally block
+                            Platform.runLater(() -> {
+                                if (!ticket.isCancelled()) {
+                                    onFailure.accept(e);
+                                }
+                            });
+                            throw e;
+                        } finally {
+                            runningFetches.decrementAndGet();
+                            if (runningSources.decrementAndGet() == 0) {
+                                Platform.runLater(() -> {
+                                    if (ticket.isCancelled()) {
+                                        RelatedArticlesMetrics.getDefault().increment(RelatedArticlesMetrics.Counter.CANCELLATIONS);
+                                    } else {
+                                        onFinished.run();
+                                    }
+                                });
+                            }
+                        }
+                        return null;
+                    })
+                    .onFailure(exception -> {
+                        LOGGER.warn("Could not fetch recommendations: " + exception.getMessage());
+                        LOGGER.debug("Error fetching recommendations", exception);
+                    })
+                    .executeWith(Globals.TASK_EXECUTOR);
+        }
+    }
+
+    /**
+     * Recommendations are identified by their title. Untitled ones are identified by their URL or, lacking that, by
+     * themselves, so that they are not all dropped as duplicates of the first one.
+     */
+    private static String getDeduplicationKey(BibEntry recommendation) {
+        Optional<String> title = recommendation.getTitle().map(String::trim).filter(value -> !value.isEmpty());
+        if (title.isPresent()) {
+            return "title:" + title.get().toLowerCase(Locale.ROOT);
+        }
+        return recommendation.getField(FieldName.URL)
+                             .map(url -> "url:" + url.trim())
+                             .orElse("id:" + recommendation.getId());
+    }
+}
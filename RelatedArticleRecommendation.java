@@ -0,0 +1,91 @@
+package org.jabref.gui.entryeditor;
+
+import java.util.Optional;
+
+import org.jabref.model.entry.BibEntry;
+import org.jabref.model.entry.FieldName;
+
+/**
+ * Immutable row of the related articles table.
+ * <p>
+ * Only plain data is stored here. Controls are created and recycled by the cell factories of the table, so that the
+ * number of scene graph nodes depends on the visible rows and not on the number of recommendations.
+ */
+public class RelatedArticleRecommendation {
+
+    private final int rank;
+    private final String title;
+    private final String authors;
+    private final String year;
+    private final Optional<String> url;
+    private final boolean inLibrary;
+
+    public RelatedArticleRecommendation(int rank, String title, String authors, String year, Optional<String> url) {
+        this(rank, title, authors, year, url, false);
+    }
+
+    public RelatedArticleRecommendation(int rank, String title, String authors, String year, Optional<String> url,
+                                        boolean inLibrary) {
+        this.rank = rank;
+        this.title = title;
+        this.authors = authors;
+        this.year = year;
+        this.url = url;
+        this.inLibrary = inLibrary;
+    }
+
+    /**
+     * Creates the recommendation for the given related article
+     * @param rank Rank of the article as delivered by the recommendation source, starting at 1
+     * @param entry The related article
+     */
+    public static RelatedArticleRecommendation of(int rank, BibEntry entry) {
+        return of(rank, entry, false);
+    }
+
+    /**
+     * Creates the recommendation for the given related article
+     * @param rank Rank of the article as delivered by the recommendation source, starting at 1
+     * @param entry The related article
+     * @param inLibrary Whether the article is already part of the library of the user
+     */
+    public static RelatedArticleRecommendation of(int rank, BibEntry entry, boolean inLibrary) {
+        return new RelatedArticleRecommendation(rank,
+                entry.getTitle().orElse(""),
+                entry.getField(FieldName.AUTHOR).orElse(""),
+                entry.getField(FieldName.YEAR).orElse(""),
+                entry.getField(FieldName.URL),
+                inLibrary);
+    }
+
+    /**
+     * @return Rank of the article as delivered by the recommendation source. The position in the table may differ
+     * after the user re-ranked the recommendations.
+     */
+    public int getRank() {
+        return rank;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getAuthors() {
+        return authors;
+    }
+
+    public String getYear() {
+        return year;
+    }
+
+    public Optional<String> getUrl() {
+        return url;
+    }
+
+    /**
+     * @return true if the article is already part of the library, possibly under a slightly different title
+     */
+    public boolean isInLibrary() {
+        return inLibrary;
+    }
+}
@@ -0,0 +1,88 @@
+package org.jabref.gui.entryeditor;
+
+import java.util.function.Consumer;
+
+import javafx.animation.Animation;
+import javafx.animation.PauseTransition;
+import javafx.util.Duration;
+
+import org.jabref.model.entry.BibEntry;
+
+/**
+ * Schedules the fetching of related articles for a single {@link RelatedArticlesTab}.
+ * <p>
+ * Rapid selection changes are debounced, so that only the entry the user stops at is fetched. Scheduling a new fetch
+ * cancels the ticket of the previous one, which allows pending background work and late results to be dropped.
+ * All methods have to be called on the JavaFX thread.
+ */
+public class RelatedArticlesFetchScheduler {
+
+    public static final Duration DEFAULT_DEBOUNCE_DELAY = Duration.millis(250);
+
+    private final PauseTransition debounce;
+    private FetchTicket currentTicket;
+
+    public RelatedArticlesFetchScheduler(Duration debounceDelay) {
+        this.debounce = new PauseTransition(debounceDelay);
+    }
+
+    /**
+     * Cancels the currently scheduled or running fetch and schedules a new one for the given entry.
+     * @param entry The entry to fetch related articles for
+     * @param fetch Action starting the fetch, invoked after the debounce delay unless cancelled before
+     * @return The ticket of the newly scheduled fetch
+     */
+    public FetchTicket schedule(BibEntry entry, Consumer<FetchTicket> fetch) {
+        cancel();
+
+        FetchTicket ticket = new FetchTicket(entry);
+        currentTicket = ticket;
+        debounce.setOnFinished(event -> {
+            if (!ticket.isCancelled()) {
+                fetch.accept(ticket);
+            }
+        });
+        debounce.playFromStart();
+        return ticket;
+    }
+
+    /**
+     * Cancels the currently scheduled or running fetch, if any.
+     */
+    public void cancel() {
+        if (debounce.getStatus() == Animation.Status.RUNNING) {
+            RelatedArticlesMetrics.getDefault().increment(RelatedArticlesMetrics.Counter.CANCELLATIONS);
+        }
+        debounce.stop();
+        if (currentTicket != null) {
+            currentTicket.cancel();
+            currentTicket = null;
+        }
+    }
+
+    /**
+     * Identifies one scheduled fetch. Background work should check {@link #isCancelled()} before doing expensive work
+     * and before publishing its results to the UI.
+     */
+    public static class FetchTicket {
+
+        private final BibEntry entry;
+        private volatile boolean cancelled;
+
+        FetchTicket(BibEntry entry) {
+            this.entry = entry;
+        }
+
+        public BibEntry getEntry() {
+            return entry;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        public void cancel() {
+            cancelled = true;
+        }
+    }
+}
@@ -0,0 +1,321 @@
+package org.jabref.gui.entryeditor;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Constructor;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Timers, counters and gauges of the Related articles tab.
+ * <p>
+ * Every {@link Phase} has a timer keeping count, total and maximum of its durations together with a histogram of
+ * power of two buckets, from which percentiles are estimated. If the JVM supports Java Flight Recorder and the
+ * separately compiled {@value #PHASE_EVENT_CLASS} is on the class path, each timed phase additionally emits a flight
+ * recorder event. The metrics can be dumped in the Prometheus text format and are exposed as the MXBean {@value #OBJECT_NAME}, so they can be inspected locally with e.g. JConsole.
+ */
+public class RelatedArticlesMetrics implements RelatedArticlesMetricsMXBean {
+
+    public static final String OBJECT_NAME = "org.jabref:type=RelatedArticlesMetrics";
+    public static final String PHASE_EVENT_CLASS = "org.jabref.gui.entryeditor.RelatedArticlesPhaseEvent";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RelatedArticlesMetrics.class);
+    private static final Supplier<PhaseEvent> PHASE_EVENTS = loadPhaseEvents();
+    private static final RelatedArticlesMetrics DEFAULT = createDefault();
+    private static final int BUCKETS = 64;
+
+    private final LongAdder[] phaseCounts = new LongAdder[Phase.values().length];
+    private final LongAdder[] phaseNanos = new LongAdder[Phase.values().length];
+    private final AtomicLongArray phaseMaxNanos = new AtomicLongArray(Phase.values().length);
+    private final AtomicLongArray histograms = new AtomicLongArray(Phase.values().length * BUCKETS);
+    private final LongAdder[] counters = new LongAdder[Counter.values().length];
+    private final Map<String, DoubleSupplier> gauges = new ConcurrentHashMap<>();
+
+    public RelatedArticlesMetrics() {
+        for (int i = 0; i < phaseCounts.length; i++) {
+            phaseCounts[i] = new LongAdder();
+            phaseNanos[i] = new LongAdder();
+        }
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * @return The metrics shared by all Related articles tabs, registered with the platform MBean server
+     */
+    public static RelatedArticlesMetrics getDefault() {
+        return DEFAULT;
+    }
+
+    private static RelatedArticlesMetrics createDefault() {
+        RelatedArticlesMetrics metrics = new RelatedArticlesMetrics();
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(metrics, new ObjectName(OBJECT_NAME));
+        } catch (JMException e) {
+            LOGGER.warn("Could not register related articles metrics", e);
+        }
+        return metrics;
+    }
+
+    /**
+     * Looks up the flight recorder event of the phases. The event class extends {@code jdk.jfr.Event}, so it is neither
+     * referenced directly nor loaded unless that class exists.
+     * @return Factory of phase events, which creates none if flight recorder or the event class is missing
+     */
+    private static Supplier<PhaseEvent> loadPhaseEvents() {
+        try {
+            Class.forName("jdk.jfr.Event");
+            Constructor<? extends PhaseEvent> constructor = Class.forName(PHASE_EVENT_CLASS)
+                                                                 .asSubclass(PhaseEvent.class)
+                                                                 .getDeclaredConstructor();
+            constructor.newInstance();
+            return () -> {
+                try {
+                    return constructor.newInstance();
+                } catch (ReflectiveOperationException e) {
+                    return null;
+                }
+            };
+        } catch (ReflectiveOperationException | LinkageError | ClassCastException e) {
+            LOGGER.debug("Flight recorder events of the related articles phases are not available", e);
+            return () -> null;
+        }
+    }
+
+    /**
+     * Starts timing the given phase. The phase ends when the returned timing is closed.
+     */
+    public Timing start(Phase phase) {
+        return new Timing(phase);
+    }
+
+    /**
+     * Records a duration of the given phase measured elsewhere
+     */
+    public void record(Phase phase, long nanos) {
+        int index = phase.ordinal();
+        phaseCounts[index].increment();
+        phaseNanos[index].add(nanos);
+        phaseMaxNanos.accumulateAndGet(index, nanos, Math::max);
+        histograms.incrementAndGet((index * BUCKETS) + bucket(nanos));
+    }
+
+    public void increment(Counter counter) {
+        counters[counter.ordinal()].increment();
+    }
+
+    /**
+     * Registers a value which is read whenever the metrics are dumped. Replaces an earlier gauge of the same name.
+     */
+    public void registerGauge(String name, DoubleSupplier gauge) {
+        gauges.put(name, gauge);
+    }
+
+    /**
+     * Registers the hit counts and the hit ratio of the given recommendation cache as gauges
+     */
+    public void registerCache(RecommendationCache cache) {
+        registerGauge("recommendation_cache_memory_hits", cache::getMemoryHits);
+        registerGauge("recommendation_cache_disk_hits", cache::getDiskHits);
+        registerGauge("recommendation_cache_misses", cache::getMisses);
+        registerGauge("recommendation_cache_expirations", cache::getExpirations);
+        registerGauge("recommendation_cache_stale_hits", cache::getStaleHits);
+        registerGauge("recommendation_cache_hit_ratio", cache::getHitRatio);
+    }
+
+    public long getCount(Phase phase) {
+        return phaseCounts[phase.ordinal()].sum();
+    }
+
+    public long getTotalNanos(Phase phase) {
+        return phaseNanos[phase.ordinal()].sum();
+    }
+
+    public long getMaxNanos(Phase phase) {
+        return phaseMaxNanos.get(phase.ordinal());
+    }
+
+    /**
+     * Estimates a percentile of the durations of the given phase. The estimate is the upper bound of the histogram
+     * bucket containing the percentile, thus it is at most twice the actual value.
+     * @param percentile Percentile between 0 and 100
+     */
+    public long getPercentileNanos(Phase phase, double percentile) {
+        int offset = phase.ordinal() * BUCKETS;
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            total += histograms.get(offset + i);
+        }
+        if (total == 0) {
+            return 0;
+        }
+
+        long rank = (long) Math.ceil((percentile / 100) * total);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += histograms.get(offset + i);
+            if (seen >= rank) {
+                return Math.min(i >= 62 ? Long.MAX_VALUE : (1L << (i + 1)) - 1, getMaxNanos(phase));
+            }
+        }
+        return getMaxNanos(phase);
+    }
+
+    public long getCount(Counter counter) {
+        return counters[counter.ordinal()].sum();
+    }
+
+    @Override
+    public Map<String, Double> getMetrics() {
+        Map<String, Double> metrics = new TreeMap<>();
+        for (Phase phase : Phase.values()) {
+            String prefix = "related_articles_" + phase.getName() + "_";
+            metrics.put(prefix + "count", (double) getCount(phase));
+            metrics.put(prefix + "seconds_total", toSeconds(getTotalNanos(phase)));
+            metrics.put(prefix + "seconds_max", toSeconds(getMaxNanos(phase)));
+            metrics.put(prefix + "seconds_p50", toSeconds(getPercentileNanos(phase, 50)));
+            metrics.put(prefix + "seconds_p95", toSeconds(getPercentileNanos(phase, 95)));
+            metrics.put(prefix + "seconds_p99", toSeconds(getPercentileNanos(phase, 99)));
+        }
+        for (Counter counter : Counter.values()) {
+            metrics.put("related_articles_" + counter.getName() + "_total", (double) getCount(counter));
+        }
+        for (Map.Entry<String, DoubleSupplier> gauge : gauges.entrySet()) {
+            metrics.put("related_articles_" + gauge.getKey(), gauge.getValue().getAsDouble());
+        }
+        return metrics;
+    }
+
+    @Override
+    public String dump() {
+        StringBuilder dump = new StringBuilder();
+        try {
+            dump(dump);
+        } catch (IOException e) {
+            // StringBuilder does not throw
+            throw new IllegalStateException(e);
+        }
+        return dump.toString();
+    }
+
+    /**
+     * Writes all metrics in the Prometheus text format
+     */
+    public void dump(Appendable out) throws IOException {
+        for (Map.Entry<String, Double> metric : getMetrics().entrySet()) {
+            out.append(metric.getKey()).append(' ').append(Double.toString(metric.getValue())).append('\n');
+        }
+    }
+
+    @Override
+    public String toString() {
+        return dump();
+    }
+
+    private static int bucket(long nanos) {
+        return nanos <= 0 ? 0 : 63 - Long.numberOfLeadingZeros(nanos);
+    }
+
+    private static double toSeconds(long nanos) {
+        return (double) nanos / TimeUnit.SECONDS.toNanos(1);
+    }
+
+    public enum Phase {
+        /** Requests to the recommendation and author lookup services */
+        FETCH("fetch"),
+        /** Parsing of the responses */
+        PARSE("parse"),
+        /** Counting the words of the word cloud */
+        FREQUENCY_ANALYSIS("frequency_analysis"),
+        /** Layout of the word cloud */
+        CLOUD_BUILD("cloud_build"),
+        /** Drawing the rank/author chart */
+        CHART_BUILD("chart_build"),
+        /** Re-ranking remote recommendations against the library */
+        RE_RANK("re_rank"),
+        /** Building the scene graph of the tab and attaching results to it */
+        FX_ATTACH("fx_attach");
+
+        private final String name;
+
+        Phase(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    public enum Counter {
+        /** Fetches cancelled because the user selected another entry */
+        CANCELLATIONS("cancellations"),
+        FETCH_FAILURES("fetch_failures"),
+        /** Requests not made because the circuit breaker of the service was open */
+        CIRCUIT_REJECTIONS("circuit_rejections"),
+        WORD_CLOUD_CACHE_HITS("word_cloud_cache_hits"),
+        WORD_CLOUD_CACHE_MISSES("word_cloud_cache_misses"),
+        AUTHOR_LOOKUP_CACHE_HITS("author_lookup_cache_hits"),
+        AUTHOR_LOOKUP_CACHE_MISSES("author_lookup_cache_misses");
+
+        private final String name;
+
+        Counter(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    /**
+     * Flight recorder event of a phase, implemented by the optional {@value #PHASE_EVENT_CLASS}
+     */
+    interface PhaseEvent {
+
+        void start();
+
+        void finish(Phase phase);
+    }
+
+    /**
+     * A running measurement of a phase, to be used with try-with-resources
+     */
+    public class Timing implements AutoCloseable {
+
+        private final Phase phase;
+        private final PhaseEvent event;
+        private final long start;
+
+        private Timing(Phase phase) {
+            this.phase = phase;
+            this.event = PHASE_EVENTS.get();
+            if (event != null) {
+                event.start();
+            }
+            this.start = System.nanoTime();
+        }
+
+        @Override
+        public void close() {
+            record(phase, System.nanoTime() - start);
+            if (event != null) {
+                event.finish(phase);
+            }
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package org.jabref.gui.entryeditor;
+
+import java.util.Map;
+
+/**
+ * Management interface of {@link RelatedArticlesMetrics}
+ */
+public interface RelatedArticlesMetricsMXBean {
+
+    /**
+     * @return All metrics by their name, durations in seconds
+     */
+    Map<String, Double> getMetrics();
+
+    /**
+     * @return All metrics in the Prometheus text format
+     */
+    String dump();
+}
@@ -1,55 +1,48 @@
 package org.jabref.gui.entryeditor;
 
-import com.kennycason.kumo.CollisionMode;
-import com.kennycason.kumo.WordCloud;
-import com.kennycason.kumo.WordFrequency;
-import com.kennycason.kumo.font.KumoFont;
-import com.kennycason.kumo.font.scale.LinearFontScalar;
-import com.kennycason.kumo.nlp.FrequencyAnalyzer;
-import com.kennycason.kumo.palette.ColorPalette;
-
-import java.awt.Color;
-import java.awt.Dimension;
 import java.io.IOException;
-import java.net.URISyntaxException;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
 
 import javax.swing.ImageIcon;
 import javax.swing.JLabel;
 
+import javafx.application.Platform;
+import javafx.beans.InvalidationListener;
 import javafx.beans.Observable;
 import javafx.beans.property.BooleanProperty;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.beans.property.ReadOnlyStringWrapper;
 import javafx.beans.property.SimpleBooleanProperty;
 import javafx.beans.value.ChangeListener;
 import javafx.beans.value.ObservableValue;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
 import javafx.css.PseudoClass;
-import javafx.embed.swing.SwingFXUtils;
 import javafx.event.ActionEvent;
 import javafx.event.EventHandler;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
-import javafx.scene.chart.BubbleChart;
-import javafx.scene.chart.CategoryAxis;
-import javafx.scene.chart.NumberAxis;
-import javafx.scene.chart.ScatterChart;
-import javafx.scene.chart.XYChart;
 import javafx.scene.control.Button;
 import javafx.scene.control.CheckBox;
 import javafx.scene.control.Hyperlink;
 import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
 import javafx.scene.control.ProgressIndicator;
 import javafx.scene.control.ScrollPane;
 import javafx.scene.control.TableCell;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableRow;
 import javafx.scene.control.TableView;
+import javafx.scene.control.TitledPane;
 import javafx.scene.control.Tooltip;
-import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.ColumnConstraints;
@@ -60,24 +53,18 @@ import javafx.scene.layout.VBox;
 import javafx.scene.text.Font;
 import javafx.scene.text.FontPosture;
 import javafx.scene.text.Text;
-import javafx.util.StringConverter;
 
 import org.jabref.Globals;
 import org.jabref.gui.DialogService;
 import org.jabref.gui.desktop.JabRefDesktop;
 import org.jabref.gui.util.BackgroundTask;
-import org.jabref.logic.importer.fetcher.MrDLibFetcher;
 import org.jabref.logic.l10n.Localization;
-import org.jabref.logic.layout.format.Number;
-import org.jabref.logic.net.URLDownload;
+import org.jabref.model.database.BibDatabase;
+import org.jabref.model.database.BibDatabaseContext;
 import org.jabref.model.entry.BibEntry;
 import org.jabref.model.entry.FieldName;
 import org.jabref.preferences.JabRefPreferences;
 
-import org.apache.http.client.utils.URIBuilder;
-import org.jsoup.Jsoup;
-import org.jsoup.nodes.Document;
-import org.jsoup.select.Elements;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import scala.Int;
@@ -88,42 +75,219 @@ import scala.Int;
 public class RelatedArticlesTab extends EntryEditorTab {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(RelatedArticlesTab.class);
+    private static final int MAX_LIBRARY_ENTRIES = 10;
+    private static final int MAX_LIBRARY_CO_AUTHORS = 5;
+    private static final RecommendationCache RECOMMENDATION_CACHE = RecommendationCache.createDefault();
+    private static final RecommendationEndpoints ENDPOINTS = RecommendationEndpoints.fromSystemProperties();
+    private static final RecommendationHttpClient HTTP_CLIENT = RecommendationHttpClient.createDefault();
+    private static final MrDLibRecommendationSource MR_DLIB_SOURCE = new MrDLibRecommendationSource(RECOMMENDATION_CACHE,
+            HTTP_CLIENT, ENDPOINTS.getMrDLibUrl(), () -> Globals.prefs.get(JabRefPreferences.LANGUAGE), Globals.BUILD_INFO.getVersion());
+    // Shared by all tabs, so that the number of connections is bounded regardless of the number of open libraries
+    private static final RecommendationAggregator AGGREGATOR = new RecommendationAggregator(MR_DLIB_SOURCE,
+            RecommendationAggregator.createPool(RecommendationAggregator.DEFAULT_PARALLELISM),
+            RecommendationAggregator.DEFAULT_PARALLELISM, RecommendationAggregator.DEFAULT_TOP_K);
+    private static final AuthorLookupService AUTHOR_LOOKUP = new AuthorLookupService(HTTP_CLIENT, ENDPOINTS.getScholarUrl(), AuthorLookupService.DEFAULT_CONCURRENCY, AuthorLookupService.DEFAULT_TIME_TO_LIVE);
+    private static final TermTokenizer TOKENIZER = TermTokenizer.forPreferredLanguage();
+    private static final WordCloudRenderer WORD_CLOUD_RENDERER = new WordCloudRenderer(WordCloudRenderer.Mode.AUTO, WordCloudRenderer.DEFAULT_CACHE_CAPACITY, TOKENIZER);
+    private static final RecommendationFeedbackLog FEEDBACK_LOG = RecommendationFeedbackLog.createDefault();
+    private static final RelatedArticlesMetrics METRICS = RelatedArticlesMetrics.getDefault();
+
+    static {
+        METRICS.registerCache(RECOMMENDATION_CACHE);
+        METRICS.registerGauge("feedback_log_dropped", FEEDBACK_LOG::getDropped);
+        METRICS.registerGauge("author_lookup_queue_depth", AUTHOR_LOOKUP::getQueueDepth);
+        // 0 closed, 1 open, 2 half open
+        METRICS.registerGauge("mrdlib_circuit_state", () -> MR_DLIB_SOURCE.getCircuitBreaker().getState().ordinal());
+        METRICS.registerGauge("scholar_circuit_state", () -> AUTHOR_LOOKUP.getCircuitBreaker().getState().ordinal());
+    }
+
     private final EntryEditorPreferences preferences;
     private final DialogService dialogService;
+    // Whether the library is resolved from the active database, as the tab was created without one
+    private final boolean followActiveDatabase;
+    private Optional<BibDatabase> database = Optional.empty();
+    private Optional<LocalRecommendationIndex> localIndex = Optional.empty();
+    private Optional<AuthorIndex> authorIndex = Optional.empty();
+    private Optional<LibraryDuplicateIndex> duplicateIndex = Optional.empty();
+    private Optional<RecommendationReRanker> reRanker = Optional.empty();
+    private volatile RecommendationStream recommendationStream;
+    private Optional<HBox> precomputeControls = Optional.empty();
+    private Optional<RecommendationPrecomputeJob> precomputeJob = Optional.empty();
+    private final RecommendationPrefetcher prefetcher;
+    private Supplier<List<BibEntry>> entryOrder = Collections::emptyList;
+    private boolean entryOrderSet;
+    private BindingListener bindingListener = BindingListener.NONE;
+    private final RelatedArticlesFetchScheduler fetchScheduler = new RelatedArticlesFetchScheduler(RelatedArticlesFetchScheduler.DEFAULT_DEBOUNCE_DELAY);
+    private EntryBindingScope bindingScope = new EntryBindingScope();
+    // Shared by the views of all entries, so that the secondary panes stay expanded once the user expanded them
+    private final BooleanProperty secondaryPanesExpanded = new SimpleBooleanProperty(false);
     private BooleanProperty contextInfoProperty = new SimpleBooleanProperty();
     private BooleanProperty resultsLoadingProperty = new SimpleBooleanProperty();
-    private HashMap<String,String> papers;
+    private Map<String,String> papers;
     private String clickedAuthorName;
+    private boolean papersUnavailable;
+    private List<BibEntry> libraryEntries = Collections.emptyList();
+    private List<AuthorName> libraryCoAuthors = Collections.emptyList();
+    // Recommendations of the current binding found in the library, added on the fetching threads
+    private final Set<BibEntry> libraryDuplicates = Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<>()));
     ProgressIndicator progress;
 
+    /**
+     * Creates a tab showing the recommendations of Mr. DLib together with related entries of the library of the bound
+     * entry, which is looked up among the active database when the tab is bound.
+     */
     public RelatedArticlesTab(EntryEditorPreferences preferences, DialogService dialogService) {
+        this(preferences, dialogService, Optional.empty(), true);
+    }
+
+    /**
+     * Creates a tab showing the recommendations of Mr. DLib together with related entries of the given database.
+     */
+    public RelatedArticlesTab(EntryEditorPreferences preferences, DialogService dialogService, BibDatabaseContext databaseContext) {
+        this(preferences, dialogService, Optional.of(databaseContext), false);
+    }
+
+    private RelatedArticlesTab(EntryEditorPreferences preferences, DialogService dialogService, Optional<BibDatabaseContext> databaseContext,
+                               boolean followActiveDatabase) {
         setText(Localization.lang("Related articles"));
         setTooltip(new Tooltip(Localization.lang("Related articles")));
         this.preferences = preferences;
         this.dialogService = dialogService;
+        this.followActiveDatabase = followActiveDatabase;
+        this.prefetcher = new RecommendationPrefetcher(MR_DLIB_SOURCE, RECOMMENDATION_CACHE,
+                new TokenBucketRateLimiter(RecommendationPrefetcher.DEFAULT_REQUESTS_PER_MINUTE / 60, RecommendationPrefetcher.DEFAULT_BURST),
+                Optional.of(WORD_CLOUD_RENDERER), () -> recommendationStream.isBusy());
+        attachDatabase(databaseContext.map(BibDatabaseContext::getDatabase));
     }
 
     /**
-     * Gets a StackPane of related article information to be displayed in the Related Articles tab
+     * Attaches the indexes of the given library to the tab, closing those of the previously attached library.
+     * Without a library, only the recommendations of Mr. DLib are shown.
+     */
+    private void attachDatabase(Optional<BibDatabase> newDatabase) {
+        if ((recommendationStream != null) && (newDatabase.orElse(null) == database.orElse(null))) {
+            return;
+        }
+        closeIndexes();
+        this.database = newDatabase;
+        this.localIndex = newDatabase.map(db -> new LocalRecommendationIndex(db, TOKENIZER));
+        this.authorIndex = newDatabase.map(AuthorIndex::new);
+        this.duplicateIndex = newDatabase.map(db -> new LibraryDuplicateIndex(db, TOKENIZER));
+        this.reRanker = newDatabase.map(db -> new RecommendationReRanker(db, authorIndex.get(), TOKENIZER));
+
+        List<RecommendationSource> sources = new ArrayList<>();
+        localIndex.ifPresent(sources::add);
+        // Remote recommendations are ordered by their similarity to the library before they are shown, and those
+        // already in the library are flagged. Both happen on the fetching thread.
+        RecommendationSource reRanked = reRanker.map(ranker -> ranker.wrap(MR_DLIB_SOURCE)).orElse(MR_DLIB_SOURCE);
+        sources.add(duplicateIndex.map(index -> index.wrap(reRanked, libraryDuplicates::add)).orElse(reRanked));
+        this.recommendationStream = new RecommendationStream(sources);
+        this.precomputeControls = newDatabase.map(this::getPrecomputeControls);
+        if (!entryOrderSet) {
+            this.entryOrder = newDatabase.<Supplier<List<BibEntry>>>map(db -> db::getEntries)
+                                         .orElse(Collections::emptyList);
+        }
+
+        // Build the indexes up front so that the first lookup is not slowed down by them
+        localIndex.ifPresent(index -> BackgroundTask
+                .wrap(() -> {
+                    index.update();
+                    return null;
+                })
+                .executeWith(Globals.TASK_EXECUTOR));
+        authorIndex.ifPresent(index -> BackgroundTask
+                .wrap(() -> {
+                    index.update();
+                    return null;
+                })
+                .executeWith(Globals.TASK_EXECUTOR));
+        duplicateIndex.ifPresent(index -> BackgroundTask
+                .wrap(() -> {
+                    index.update();
+                    return null;
+                })
+                .executeWith(Globals.TASK_EXECUTOR));
+        reRanker.ifPresent(ranker -> BackgroundTask
+                .wrap(() -> {
+                    ranker.update();
+                    return null;
+                })
+                .executeWith(Globals.TASK_EXECUTOR));
+    }
+
+    /**
+     * Gets a StackPane of related article information to be displayed in the Related Articles tab.
+     * Recommendations are added to the pane as soon as any of the recommendation sources delivers them.
      * @param entry The currently selected BibEntry on the JabRef UI.
+     * @param scope Scope of the current binding, releasing the pane when the tab is bound to another entry
      * @return A StackPane with related article information to be displayed in the Related Articles tab.
      */
-    private StackPane getRelatedArticlesPane(BibEntry entry) {
+    private StackPane getRelatedArticlesPane(BibEntry entry, EntryBindingScope scope) {
         StackPane root = new StackPane();
         root.getStyleClass().add("related-articles-tab");
         ProgressIndicator progress = new ProgressIndicator();
         progress.setMaxSize(100, 100);
 
-        MrDLibFetcher fetcher = new MrDLibFetcher(Globals.prefs.get(JabRefPreferences.LANGUAGE),
-                                                  Globals.BUILD_INFO.getVersion());
-        BackgroundTask
-                      .wrap(() -> fetcher.performSearch(entry))
-                      .onRunning(() -> progress.setVisible(true))
-                      .onSuccess(relatedArticles -> {
-                          progress.setVisible(false);
-                          root.getChildren().add(getRelatedArticleInfoEx(relatedArticles, entry));
-                      })
-                      .executeWith(Globals.TASK_EXECUTOR);
+        fetchScheduler.schedule(entry, ticket -> {
+            scope.onDispose(ticket::cancel);
+            RelatedArticlesView view;
+            try (RelatedArticlesMetrics.Timing timing = METRICS.start(RelatedArticlesMetrics.Phase.FX_ATTACH)) {
+                view = getRelatedArticleInfoEx(entry, ticket, scope);
+                root.getChildren().setAll(view.getContent());
+            }
+            recommendationStream.start(entry, ticket, view::addRecommendations, view::fail, view::finish);
+            // Only once the user settled on the entry, as the neighbours change with every step while scrolling
+            prefetcher.prefetch(RecommendationPrefetcher.getNeighbours(entryOrder.get(), entry, RecommendationPrefetcher.DEFAULT_DISTANCE));
+        });
+
+        root.getChildren().add(progress);
+
+        return root;
+    }
+
+    /**
+     * Gets a StackPane of the merged related article information of several entries. The recommendations of the entries
+     * are fetched in the background, and the merged list is shown once all entries are processed.
+     * @param entries The selected entries, at least two
+     * @param scope Scope of the current binding, releasing the pane when the tab is bound to another entry
+     * @return A StackPane with related article information to be displayed in the Related Articles tab.
+     */
+    private StackPane getAggregatedArticlesPane(List<BibEntry> entries, EntryBindingScope scope) {
+        StackPane root = new StackPane();
+        root.getStyleClass().add("related-articles-tab");
+        ProgressIndicator progress = new ProgressIndicator();
+        progress.setMaxSize(100, 100);
+
+        fetchScheduler.schedule(entries.get(0), ticket -> {
+            scope.onDispose(ticket::cancel);
+            RelatedArticlesView view;
+            try (RelatedArticlesMetrics.Timing timing = METRICS.start(RelatedArticlesMetrics.Phase.FX_ATTACH)) {
+                view = new RelatedArticlesView(entries, ticket, scope);
+                root.getChildren().setAll(view.getContent());
+            }
+            Optional<LibraryDuplicateIndex> index = duplicateIndex;
+            AGGREGATOR.aggregate(entries, ticket, (processed, total) -> Platform.runLater(() -> {
+                if (!ticket.isCancelled()) {
+                    view.showProgress(processed, total);
+                }
+            })).thenApply(recommendations -> {
+                index.ifPresent(duplicates -> duplicates.findDuplicates(recommendations, libraryDuplicates::add));
+                return recommendations;
+            }).whenComplete((recommendations, exception) -> Platform.runLater(() -> {
+                if (ticket.isCancelled()) {
+                    return;
+                }
+                if (exception != null) {
+                    Throwable cause = exception instanceof CompletionException ? exception.getCause() : exception;
+                    LOGGER.warn("Could not fetch recommendations: " + cause.getMessage());
+                    LOGGER.debug("Error fetching recommendations", cause);
+                    view.fail(cause);
+                } else if (!recommendations.isEmpty()) {
+                    view.addRecommendations(recommendations);
+                }
+                view.finish();
+            }));
+        });
 
         root.getChildren().add(progress);
 
@@ -171,259 +335,357 @@ public class RelatedArticlesTab extends EntryEditorTab {
     }
 
     /**
-     * Creates a VBox of the related article information to be used in the StackPane displayed in the Related Articles tab
-     * @param list List of BibEntries of related articles
+     * Creates the related article information to be used in the StackPane displayed in the Related Articles tab.
+     * The returned view is empty at first and filled by {@link RelatedArticlesView#addRecommendations(List)}.
      * @param paper Selected BibEntry
-     * @return VBox of related article descriptions to be displayed in the Related Articles tab
+     * @param ticket Ticket of the fetch the related articles belong to
+     * @param scope Scope of the current binding, releasing the view when the tab is bound to another entry
+     * @return View of related article descriptions to be displayed in the Related Articles tab
      */
-    private VBox getRelatedArticleInfoEx(List<BibEntry> list, BibEntry paper) {
-        List<String> text = new ArrayList<>();
-
-        boolean abstractPresent = false;
-        String abstractText = paper.getField(FieldName.ABSTRACT).orElse("");
-        if(!abstractText.isEmpty())
-        {
-            text.add(abstractText);
-            abstractPresent = true;
-        }
-        else
-            text.add(paper.getTitle().orElse(""));
-
-        VBox vBox = new VBox();
-        vBox.setSpacing(20.0);
+    private RelatedArticlesView getRelatedArticleInfoEx(BibEntry paper, RelatedArticlesFetchScheduler.FetchTicket ticket,
+                                                        EntryBindingScope scope) {
+        return new RelatedArticlesView(paper, ticket, scope);
+    }
 
-        GridPane tableGrid = getRelatedArticleGridPane(20, 10,70);
-        GridPane contentGrid = getRelatedArticleGridPane(0,40,60);
+    /**
+     * Builds the complete related article information for the given recommendations at once, without fetching
+     * anything or rendering the word cloud. Must be called on the JavaFX thread. Used to benchmark the view.
+     * @param paper Selected BibEntry
+     * @param list List of BibEntries of related articles
+     * @param scope Scope releasing the view once disposed
+     * @return VBox of related article descriptions
+     */
+    VBox buildRelatedArticleInfo(BibEntry paper, List<BibEntry> list, EntryBindingScope scope) {
+        RelatedArticlesFetchScheduler.FetchTicket ticket = new RelatedArticlesFetchScheduler.FetchTicket(paper);
+        ticket.cancel();
+        RelatedArticlesView view = getRelatedArticleInfoEx(paper, ticket, scope);
+        view.addRecommendations(list);
+        view.finish();
+        return view.getContent();
+    }
 
-        ScrollPane scroll = new ScrollPane();
-        scroll.setFitToWidth(true);
-        scroll.setFitToHeight(true);
-        scroll.setContent(contentGrid);
+    /**
+     * Related article information of one entry or of a selection of entries. Recommendations are appended as they
+     * arrive: the table, the author frequencies and the chart are updated incrementally, and the word cloud is
+     * re-rendered in the background. The context information pane and the chart are built on demand, when their
+     * collapsed pane is first expanded.
+     */
+    private class RelatedArticlesView {
+
+        private final RelatedArticlesFetchScheduler.FetchTicket ticket;
+        private final VBox vBox = new VBox();
+        private final TableView<RelatedArticleRecommendation> table;
+        private final RecommendationRanking<RelatedArticleRecommendation> data = new RecommendationRanking<>();
+        private final RankAuthorData chartData = new RankAuthorData();
+        private final BibEntry paper;
+        private final String paperTitle;
+        private final EntryBindingScope scope;
+        private final TitledPane secondaryPane;
+        private Optional<RankAuthorChart> chart = Optional.empty();
+        private final Label wordCloudLbl = new Label();
+        private final List<String> text = new ArrayList<>();
+        private final boolean abstractPresent;
+        private final ProgressIndicator tableProgress = new ProgressIndicator();
+        private boolean wordCloudRendering;
+        private boolean wordCloudOutdated;
+        private boolean sourceFailed;
+
+        RelatedArticlesView(BibEntry paper, RelatedArticlesFetchScheduler.FetchTicket ticket, EntryBindingScope scope) {
+            this(paper, paper.getTitle().orElse(""), paper.getField(FieldName.ABSTRACT).orElse(""), ticket, scope);
+            if (!abstractPresent) {
+                text.add(paperTitle);
+            }
+        }
 
-        TableView<RelatedArticleRecommendation> table = getRelatedArticleTable(list.size(), paper.getTitle().orElse(""));
-        ObservableList<RelatedArticleRecommendation> data = FXCollections.observableArrayList();
+        /**
+         * Creates the view of the merged recommendations of the given entries. The word cloud is rendered from the
+         * titles of the merged recommendations.
+         */
+        RelatedArticlesView(List<BibEntry> entries, RelatedArticlesFetchScheduler.FetchTicket ticket, EntryBindingScope scope) {
+            this(entries.get(0), Localization.lang("%0 selected entries", String.valueOf(entries.size())), "", ticket, scope);
+        }
 
-        ObservableList<XYChart.Series<Number, Number>> plotData = FXCollections.observableArrayList();
-        XYChart.Series<Number, Number> series = new XYChart.Series<Number, Number>();
+        /**
+         * @param paper Entry reported to the binding listener, for a selection its first entry
+         * @param paperTitle Title of the entry or description of the selection the recommendations are shown for
+         * @param abstractText Abstract the word cloud is rendered from, if empty it is rendered from the titles of the
+         *                     recommendations
+         */
+        private RelatedArticlesView(BibEntry paper, String paperTitle, String abstractText,
+                                    RelatedArticlesFetchScheduler.FetchTicket ticket, EntryBindingScope scope) {
+            this.ticket = ticket;
+            this.scope = scope;
+            this.paper = paper;
+            this.paperTitle = paperTitle;
+            scope.onDispose(this::dispose);
+
+            abstractPresent = !abstractText.isEmpty();
+            if (abstractPresent) {
+                text.add(abstractText);
+            }
 
-        ScrollPane content = getContextInformationPane();
+            vBox.setSpacing(20.0);
 
-        HashMap<String,Integer> authorsMap = new HashMap();
-        HashMap<Integer,Integer> frequencyMap = new HashMap();
-        populateAuthorAndFrequencyMaps(list,authorsMap,frequencyMap);
+            GridPane tableGrid = getRelatedArticleGridPane(20, 10,70);
 
-        int rank = 0;
-        for (BibEntry entry : list) {
+            table = getRelatedArticleTable(paperTitle);
+            tableProgress.setMaxSize(50, 50);
+            table.setPlaceholder(tableProgress);
+            table.setItems(data);
 
-            String title = entry.getTitle().orElse("");
-            String authors = entry.getField(FieldName.AUTHOR).orElse("");
-            String year = entry.getField(FieldName.YEAR).orElse("");
-            rank++;
+            tableGrid.add(wordCloudLbl,0,0);
+            tableGrid.add(getUpDownButtons(table, data, paperTitle),1,0);
+            tableGrid.add(table,2,0);
 
-            Hyperlink titleLink = new Hyperlink(title);
-            Text authorsText = new Text(authors);
-            Text yearText = new Text("(" + year + ")");
-            titleLink.setOnAction(event -> {
-                if (entry.getField(FieldName.URL).isPresent()) {
-                    try {
-                        JabRefDesktop.openBrowser(entry.getField(FieldName.URL).get());
-                    } catch (IOException e) {
-                        LOGGER.error("Error opening the browser to: " + entry.getField(FieldName.URL).get(), e);
-                        dialogService.showErrorDialogAndWait(e);
-                    }
+            // The context pane and the chart are only built once they are expanded
+            secondaryPane = new TitledPane();
+            secondaryPane.setText(Localization.lang("Context information and authors"));
+            secondaryPane.setAnimated(false);
+            // Starts collapsed, so that binding to expanded panes builds them like any other expansion
+            secondaryPane.setExpanded(false);
+            scope.addListener(secondaryPane.expandedProperty(), (observable, wasExpanded, expanded) -> {
+                if (expanded) {
+                    buildSecondaryPanes();
                 }
             });
-            if(!abstractPresent)
-                text.add(title);
+            secondaryPane.expandedProperty().bindBidirectional(secondaryPanesExpanded);
+            scope.onDispose(() -> secondaryPane.expandedProperty().unbindBidirectional(secondaryPanesExpanded));
 
-            data.add(new RelatedArticleRecommendation(rank, rank, titleLink, authorsText,yearText));
-            series.getData().add(new XYChart.Data(rank,authorsMap.get(authors),frequencyMap.get(authorsMap.get(authors))*0.2));
-        }
+            precomputeControls.ifPresent(vBox.getChildren()::add);
+            vBox.getChildren().addAll(tableGrid, secondaryPane);
 
-        table.setItems(data);
-        tableGrid.add(getWorldCloud(text),0,0);
-        tableGrid.add(getUpDownButtons(table),1,0);
-        tableGrid.add(table,2,0);
-
-        plotData.add(series);
-        BubbleChart bubbleChart = getBubbleChart(list.size(),authorsMap.size(),authorsMap, paper.getTitle().orElse(""));
-        bubbleChart.setData(plotData);
-        contentGrid.add(content,1,0);
-        ScrollPane scrollScatterChart = new ScrollPane();
-        scrollScatterChart.setFitToWidth(true);
-        scrollScatterChart.setFitToHeight(true);
-        scrollScatterChart.setContent(bubbleChart);
-        contentGrid.add(scrollScatterChart,2,0);
-
-        vBox.getChildren().addAll(tableGrid, scroll);
-        return vBox;
-    }
+            // The word cloud of the abstract does not depend on the recommendations
+            if (abstractPresent) {
+                updateWordCloud();
+            }
+        }
 
-    /**
-     * Creates a Label containing WordCloud
-     * @param text List of strings to use to create the world cloud
-     * @return Label containing the WordCloud
-     */
-    private static Label getWorldCloud(List<String> text)
-    {
-        final Label wordCloudLbl = new Label();
-        try {
-            WordCloud wordCloud = buildWordCloud(text);
-            Image image = SwingFXUtils.toFXImage(wordCloud.getBufferedImage(), null);
-            wordCloudLbl.setGraphic(new ImageView(image));
-        } catch (IOException e) {
-            e.printStackTrace();
+        VBox getContent() {
+            return vBox;
         }
-        return wordCloudLbl;
-    }
 
-    /**
-     * Creates a WorldCloud
-     * @param text List of strings to use to create the world cloud
-     * @return WordCloud formed using the given parameters
-     */
-    private static WordCloud buildWordCloud(List<String> text) throws IOException {
-        final FrequencyAnalyzer frequencyAnalyzer = new FrequencyAnalyzer();
-        final List<WordFrequency> wordFrequencies = frequencyAnalyzer.load(text);
-        final Dimension dimension = new Dimension(200, 200);
-        final WordCloud wordCloud = new WordCloud(dimension, CollisionMode.PIXEL_PERFECT);
-        wordCloud.setPadding(1);
-        wordCloud.setBackgroundColor(new Color(0xffffff));
-        wordCloud.setKumoFont(new KumoFont(new java.awt.Font("Verdana", java.awt.Font.BOLD, 12)));
-        /*wordCloud.setColorPalette(new ColorPalette
-                (new Color(0x35235D),
-                        new Color(0xDB2464),
-                        new Color(0x40AAF1),
-                        new Color(0xCB2402),
-                        new Color(0xB8DC3C),
-                        new Color(0xA31A48)));*/
-        wordCloud.setColorPalette(new ColorPalette
-                (new Color(0xe37222),
-                        new Color(0x07889b),
-                        new Color(0x66b9bf),
-                        new Color(0xeeaa7b)));
-        wordCloud.setFontScalar(new LinearFontScalar(5, 24));
-        wordCloud.build(wordFrequencies);
-        return wordCloud;
-    }
+        /**
+         * Builds the context information pane and the chart from the data collected so far, unless already built
+         */
+        private void buildSecondaryPanes() {
+            if (chart.isPresent()) {
+                return;
+            }
 
-    /**
-     * Populates the provided authorsMap and frequencyMap with information
-     * @param list List of BibEntry to get author information from
-     * @param authorsMap Map to populate authors against a serial number
-     * @param frequencyMap Map to populate frequency of authors against authors name
-     */
-    private static void populateAuthorAndFrequencyMaps(List<BibEntry> list, HashMap<String,Integer> authorsMap, HashMap<Integer, Integer> frequencyMap)
-    {
-        int authorNumber=0;
-        for(BibEntry entry : list)
-        {
-            String authors = entry.getField(FieldName.AUTHOR).orElse("");
-            if(!authorsMap.containsKey(authors))
-            {
-                authorNumber++;
-                authorsMap.put(authors,authorNumber);
-                frequencyMap.put(authorNumber,1);
+            GridPane contentGrid = getRelatedArticleGridPane(0,40,60);
+            ScrollPane scroll = new ScrollPane();
+            scroll.setFitToWidth(true);
+            scroll.setFitToHeight(true);
+            scroll.setContent(contentGrid);
+
+            ScrollPane content = getContextInformationPane(scope);
+            RankAuthorChart rankAuthorChart = new RankAuthorChart(chartData, paperTitle);
+            chart = Optional.of(rankAuthorChart);
+
+            contentGrid.add(content,1,0);
+            // The chart scrolls its author rows itself
+            contentGrid.add(rankAuthorChart,2,0);
+
+            secondaryPane.setContent(scroll);
+        }
+
+        /**
+         * Appends the given recommendations to the table, the author frequencies and the chart
+         * @param list List of BibEntries of related articles
+         */
+        void addRecommendations(List<BibEntry> list) {
+            boolean first = data.isEmpty();
+            try (RelatedArticlesMetrics.Timing timing = METRICS.start(RelatedArticlesMetrics.Phase.FX_ATTACH)) {
+                appendRecommendations(list);
             }
-            else
-            {
-                frequencyMap.put(authorsMap.get(authors),frequencyMap.get(authorsMap.get(authors))+1);
+            if (first) {
+                bindingListener.onFirstRecommendations(paper);
+            }
+            if (!abstractPresent) {
+                updateWordCloud();
             }
         }
-    }
 
-    public static class RelatedArticleRecommendation {
-
-        private final int sno;
-        private final Hyperlink title;
-        private final Text authors;
-        private final Text year;
-        private int rno;
+        private void appendRecommendations(List<BibEntry> list) {
+            List<RelatedArticleRecommendation> recommendations = new ArrayList<>(list.size());
+            int rank = data.size();
+            for (BibEntry entry : list) {
+                rank++;
+                // Articles of the library may come back from Mr. DLib under a slightly different title
+                boolean inLibrary = libraryDuplicates.contains(entry);
+                RelatedArticleRecommendation recommendation = RelatedArticleRecommendation.of(rank, entry, inLibrary);
+                if(!abstractPresent)
+                    text.add(recommendation.getTitle());
+
+                recommendations.add(recommendation);
+                for (AuthorName author : AuthorName.parseRecommendedAuthors(recommendation.getAuthors())) {
+                    chartData.add(rank, author, rank + ". " + recommendation.getTitle());
+                }
+            }
 
-        private RelatedArticleRecommendation(int _rno, int _sno, Hyperlink _titleLink, Text _authorsText, Text _yearText) {
-            this.sno = _sno;
-            this.title = _titleLink;
-            this.authors = _authorsText;
-            this.year = _yearText;
-            this.rno = _rno;
+            data.addAll(recommendations);
+            // The lower order rows depend on the number of rows
+            table.refresh();
+            chart.ifPresent(RankAuthorChart::refresh);
         }
 
-        public Hyperlink getTitle() {
-            return title;
+        /**
+         * Shows how many of the selected entries have been processed while the table is still empty
+         */
+        void showProgress(int processed, int total) {
+            tableProgress.setProgress(total == 0 ? 1 : (double) processed / total);
         }
 
-        public Text getAuthors() {
-            return authors;
+        /**
+         * Called for every recommendation source that failed, e.g. because the service is not reachable
+         */
+        void fail(Throwable exception) {
+            sourceFailed = true;
         }
 
-        public Text getYear() {
-            return year;
+        /**
+         * Called after all recommendation sources have finished
+         */
+        void finish() {
+            if (data.isEmpty()) {
+                table.setPlaceholder(new Label(sourceFailed
+                        ? Localization.lang("Related articles are not available at the moment. Please try again later.")
+                        : Localization.lang("No related articles found")));
+                if (!abstractPresent) {
+                    updateWordCloud();
+                }
+            }
+            bindingListener.onFinished(paper, data.size());
         }
 
-        public int getSno() {
-            return sno;
+        /**
+         * Stops pending work and releases the rendered images, so that nothing of the view survives a rebinding
+         */
+        private void dispose() {
+            ticket.cancel();
+            wordCloudLbl.setGraphic(null);
+            data.clear();
         }
 
-        public int getRno() {
-            return rno;
-        }
+        /**
+         * Renders the word cloud in the background. If the text changes while rendering, it is rendered once more
+         * afterwards.
+         */
+        private void updateWordCloud() {
+            if (wordCloudRendering) {
+                wordCloudOutdated = true;
+                return;
+            }
+
+            List<String> snapshot = new ArrayList<>(text);
+            Optional<Image> cached = WORD_CLOUD_RENDERER.getCached(snapshot);
+            if (cached.isPresent()) {
+                wordCloudLbl.setGraphic(new ImageView(cached.get()));
+                return;
+            }
 
-        public  void setRno(int _rno)
-        {
-            this.rno = _rno;
+            if (wordCloudLbl.getGraphic() == null) {
+                ProgressIndicator progress = new ProgressIndicator();
+                progress.setMaxSize(50, 50);
+                wordCloudLbl.setGraphic(progress);
+            }
+            wordCloudRendering = true;
+            BackgroundTask
+                    .wrap(() -> ticket.isCancelled() ? null : WORD_CLOUD_RENDERER.render(snapshot))
+                    .onSuccess(image -> {
+                        wordCloudRendering = false;
+                        if ((image == null) || ticket.isCancelled()) {
+                            return;
+                        }
+                        wordCloudLbl.setGraphic(new ImageView(image));
+                        if (wordCloudOutdated) {
+                            wordCloudOutdated = false;
+                            updateWordCloud();
+                        }
+                    })
+                    .onFailure(exception -> {
+                        wordCloudRendering = false;
+                        LOGGER.error("Error rendering the word cloud", exception);
+                        wordCloudLbl.setGraphic(null);
+                    })
+                    .executeWith(Globals.TASK_EXECUTOR);
         }
     }
 
     /**
      * Creates a TableView to hold related article recommendations
-     * @param size Size of list of BibEntries of related articles
+     * @param paper Title of the selected BibEntry
      * @return TableView of related article descriptions to be displayed in the Related Articles tab
      */
-    private TableView<RelatedArticleRecommendation> getRelatedArticleTable(int size, String paper)
+    private TableView<RelatedArticleRecommendation> getRelatedArticleTable(String paper)
     {
         TableView<RelatedArticleRecommendation> table = new TableView<RelatedArticleRecommendation>();
         table.setEditable(false);
         table.setTooltip(new Tooltip(Localization.lang("You are shown the recommendations because you clicked \n\"" + paper + "\"")));
 
-        TableColumn serialColumn = new TableColumn(Localization.lang("S.no."));
-        TableColumn titleColumn = new TableColumn(Localization.lang("Title"));
-        TableColumn authorsColumn = new TableColumn(Localization.lang("Authors"));
-        TableColumn yearColumn = new TableColumn(Localization.lang("Year"));
+        TableColumn<RelatedArticleRecommendation, Integer> serialColumn = new TableColumn<>(Localization.lang("S.no."));
+        TableColumn<RelatedArticleRecommendation, RelatedArticleRecommendation> titleColumn = new TableColumn<>(Localization.lang("Title"));
+        TableColumn<RelatedArticleRecommendation, String> authorsColumn = new TableColumn<>(Localization.lang("Authors"));
+        TableColumn<RelatedArticleRecommendation, String> yearColumn = new TableColumn<>(Localization.lang("Year"));
 
         serialColumn.prefWidthProperty().bind(table.widthProperty().multiply(0.1));
         titleColumn.prefWidthProperty().bind(table.widthProperty().multiply(0.6));
         authorsColumn.prefWidthProperty().bind(table.widthProperty().multiply(0.2));
         yearColumn.prefWidthProperty().bind(table.widthProperty().multiply(0.1));
 
-        serialColumn.setCellValueFactory( new PropertyValueFactory<RelatedArticleRecommendation,Hyperlink>("sno"));
-        titleColumn.setCellValueFactory( new PropertyValueFactory<RelatedArticleRecommendation,Hyperlink>("title"));
-        authorsColumn.setCellValueFactory( new PropertyValueFactory<RelatedArticleRecommendation, Text>("authors"));
-        yearColumn.setCellValueFactory( new PropertyValueFactory<RelatedArticleRecommendation,Text>("year"));
+        serialColumn.setCellValueFactory(cellData -> new ReadOnlyObjectWrapper<>(cellData.getValue().getRank()));
+        titleColumn.setCellValueFactory(cellData -> new ReadOnlyObjectWrapper<>(cellData.getValue()));
+        authorsColumn.setCellValueFactory(cellData -> new ReadOnlyStringWrapper(cellData.getValue().getAuthors()));
+        yearColumn.setCellValueFactory(cellData -> new ReadOnlyStringWrapper("(" + cellData.getValue().getYear() + ")"));
 
         table.getColumns().addAll(serialColumn, titleColumn, authorsColumn, yearColumn);
+        // The order is the ranking, which is only changed by the re-rank buttons
+        for (TableColumn<RelatedArticleRecommendation, ?> column : table.getColumns()) {
+            column.setSortable(false);
+        }
+
+        // One hyperlink per visible cell, reused when the cell is assigned another recommendation
+        titleColumn.setCellFactory(tc -> new TableCell<RelatedArticleRecommendation, RelatedArticleRecommendation>() {
+            private final Hyperlink titleLink = new Hyperlink();
+
+            {
+                titleLink.setOnAction(event -> getItem().getUrl().ifPresent(url -> {
+                    try {
+                        JabRefDesktop.openBrowser(url);
+                    } catch (IOException e) {
+                        LOGGER.error("Error opening the browser to: " + url, e);
+                        dialogService.showErrorDialogAndWait(e);
+                    }
+                }));
+            }
+
+            @Override
+            protected void updateItem(RelatedArticleRecommendation item, boolean empty) {
+                super.updateItem(item, empty);
+                if (empty || (item == null)) {
+                    setGraphic(null);
+                } else {
+                    titleLink.setText(item.getTitle());
+                    titleLink.setVisited(false);
+                    setGraphic(titleLink);
+                }
+            }
+        });
 
         authorsColumn.setCellFactory(tc -> {
-            TableCell<RelatedArticleRecommendation, Text> cell = new TableCell<RelatedArticleRecommendation, Text>() {
+            TableCell<RelatedArticleRecommendation, String> cell = new TableCell<RelatedArticleRecommendation, String>() {
                 @Override
-                protected void updateItem(Text item, boolean empty) {
+                protected void updateItem(String item, boolean empty) {
                     super.updateItem(item, empty) ;
-                    setText(empty ? null : item.getText());
+                    setText(empty ? null : item);
                 }
             };
             cell.setOnMouseClicked(e -> {
                 if (! cell.isEmpty()) {
-                    String userId = cell.getItem().getText();
+                    String userId = cell.getItem();
                     if(!userId.isEmpty())
                     {
-                        resultsLoadingProperty.set(!resultsLoadingProperty.get());
-                        BackgroundTask
-                                .wrap(() -> SearchPapersByAuthor(userId))
-                                .onSuccess(tempPapers -> {
-                                    papers = tempPapers;
-                                    clickedAuthorName = userId;
-                                    contextInfoProperty.set(!contextInfoProperty.get());
-                                })
-                                .executeWith(Globals.TASK_EXECUTOR);
+                        showAuthorContext(userId);
                     }
                 }
                  });
@@ -431,15 +693,26 @@ public class RelatedArticlesTab extends EntryEditorTab {
         });
 
         PseudoClass lowerOrderRows = PseudoClass.getPseudoClass("lowerOrderRows");
+        PseudoClass inLibraryRows = PseudoClass.getPseudoClass("inLibrary");
+        Tooltip inLibraryTooltip = new Tooltip(Localization.lang("Already in your library"));
 
-        final int min = 3 > size ? size : 3;
         table.setRowFactory(tableView -> {
             TableRow<RelatedArticleRecommendation> row = new TableRow<RelatedArticleRecommendation>();
-            row.itemProperty().addListener((Observable observable)-> {
+            // The current rank of a recommendation is its position in the table
+            InvalidationListener rankListener = (Observable observable) -> {
                 if (row.itemProperty().get() != null)
                 {
-                    row.pseudoClassStateChanged(lowerOrderRows, (size - row.itemProperty().get().getRno()) < min);
+                    int size = table.getItems().size();
+                    final int min = 3 > size ? size : 3;
+                    row.pseudoClassStateChanged(lowerOrderRows, (size - (row.getIndex() + 1)) < min);
                 }
+            };
+            row.itemProperty().addListener(rankListener);
+            row.indexProperty().addListener(rankListener);
+            row.itemProperty().addListener((observable, oldItem, newItem) -> {
+                boolean inLibrary = (newItem != null) && newItem.isInLibrary();
+                row.pseudoClassStateChanged(inLibraryRows, inLibrary);
+                row.setTooltip(inLibrary ? inLibraryTooltip : null);
             });
 
             return row;
@@ -448,89 +721,36 @@ public class RelatedArticlesTab extends EntryEditorTab {
     }
 
     /**
-     * Creates a HashMap containing articles name and their url
-     * @param author Name of the author of whose articles are to be retrieved
-     * @return HasMap<String,String> where key is Article Name and Value is URL
+     * Shows the library context and the Scholar papers of the given authors, as after a click on them. Must be called
+     * on the JavaFX thread.
+     * @param userId Authors of the clicked recommendation
+     * @return Future completed once the Scholar papers are shown
      */
-    private HashMap<String,String> SearchPapersByAuthor(String author) throws IOException {
-        URIBuilder uriBuilder = null;
-        HashMap<String,String> papers=new HashMap<>();
-        String[] authors = author.split(";");
-
-        for(int j = 0; j < authors.length; j++)
-        {
-            try {
-                uriBuilder = new URIBuilder("https://scholar.google.com//scholar?");
-            } catch (URISyntaxException e2) {
-                e2.printStackTrace();
-            }
-            uriBuilder.addParameter("as_q", "");
-            uriBuilder.addParameter("as_epq", authors[j]);
-            uriBuilder.addParameter("as_occt", "author");
-
-            String url = uriBuilder.toString();
-            System.out.println(url);
-
-            Document doc = Jsoup.connect(url).userAgent(URLDownload.USER_AGENT).get();
-            int stop = 10/authors.length;
-            for (int i = 0; i < stop; i++) {
-                Elements link = doc.select(String.format("div[data-rp=%S] div.gs_ri a", i));
-                if (link.first() != null) {
-                    String paper="";
-                    if(link.first().childNode(0)!=null)
-                    {
-                        paper=link.first().childNode(0).toString();
-                        if(paper.contains("gs_or_svg"))
-                        {
-                            stop++;
-                            continue;
-                        }
-                    }
-                    String target = link.first().attr("href");
-                    papers.put(paper,target);
+    CompletableFuture<Void> showAuthorContext(String userId) {
+        EntryBindingScope scope = bindingScope;
+        // The library context and the Scholar results are shown as they arrive
+        secondaryPanesExpanded.set(true);
+        resultsLoadingProperty.set(!resultsLoadingProperty.get());
+        updateLibraryContext(userId, scope);
+        CompletableFuture<Void> shown = new CompletableFuture<>();
+        AUTHOR_LOOKUP.lookup(userId).whenComplete((tempPapers, exception) -> Platform.runLater(() -> {
+            if (!scope.isDisposed()) {
+                if (exception != null) {
+                    LOGGER.warn("Could not retrieve the papers of " + userId + ": " + exception.getMessage());
                 }
+                // Show the library context and a notice instead of loading forever
+                papers = exception == null ? tempPapers : Collections.emptyMap();
+                papersUnavailable = exception != null;
+                clickedAuthorName = userId;
+                contextInfoProperty.set(!contextInfoProperty.get());
             }
-        }
-        return papers;
-    }
-
-    /**
-     * Creates a BubbleChart of Recommendation rank against authors
-     * @param xAxisUpperBound Upper bound of x-axis
-     * @param yAxisUpperBound Upper bound of y-axis
-     * @param authorsMap HashMap containing authors name agaist serial number
-     * @param title Name of the currently selected BibEntry
-     * @return BubbleChart of Recommendation rank against authors
-     */
-    private BubbleChart getBubbleChart(int xAxisUpperBound, int yAxisUpperBound, HashMap<String,Integer> authorsMap, String title)
-    {
-        NumberAxis xAxis = new NumberAxis(Localization.lang("Ranking"),1,xAxisUpperBound, 1);
-        NumberAxis yAxis = new NumberAxis(Localization.lang("Authors"),1,yAxisUpperBound,1);
-
-        yAxis.setTickLabelFormatter(new StringConverter<java.lang.Number>() {
-            @Override
-            public String toString(java.lang.Number object) {
-                for (Map.Entry<String,Integer> entry : authorsMap.entrySet()) {
-                    if (entry.getValue().equals(object.intValue())) {
-                        return entry.getKey();
-                    }
-                }
-                return "";
+            if (exception != null) {
+                shown.completeExceptionally(exception);
+                return;
             }
-
-            @Override
-            public java.lang.Number fromString(String string) {
-                return authorsMap.get(string);
-            }
-        });
-
-
-        BubbleChart bubbleChart = new BubbleChart(xAxis, yAxis);
-        bubbleChart.setLegendVisible(false);
-        bubbleChart.setTitle(Localization.lang("Recommendation Rank against Authors"));
-        Tooltip.install(bubbleChart, new Tooltip(Localization.lang("You are shown this chart because you clicked \n\"" + title+"\"")));
-
-        return bubbleChart;
+            shown.complete(null);
+        }));
+        return shown;
     }
 
     /**
@@ -558,25 +778,32 @@ public class RelatedArticlesTab extends EntryEditorTab {
     }
 
     /**
-     * Creates a VBox for holding re-rank buttons
+     * Creates a VBox for holding re-rank buttons. If a row is selected, the buttons move it up or down by one,
+     * otherwise they rotate the whole ranking. Every re-rank is recorded in the feedback log.
      * @param table TableView object to be used in button actions
+     * @param ranking Items of the table
+     * @param paper Title of the selected BibEntry
      * @return VBox
      */
-    private VBox getUpDownButtons(TableView<RelatedArticleRecommendation> table)
+    private VBox getUpDownButtons(TableView<RelatedArticleRecommendation> table,
+                                  RecommendationRanking<RelatedArticleRecommendation> ranking, String paper)
     {
+        long paperHash = RecommendationFeedbackLog.hashTitle(paper);
+
         Button btnUp = new Button("▲");
         btnUp.setStyle("-fx-text-fill: #07889b;");
         btnUp.setOnAction(new EventHandler<ActionEvent>() {
             @Override public void handle(ActionEvent e) {
-                ObservableList<RelatedArticleRecommendation> modifiedData = FXCollections.observableArrayList();
-                for (int i = 1; i < table.getItems().size(); i++)
-                {
-                    table.getItems().get(i).setRno(i);
-                    modifiedData.add(table.getItems().get(i));
+                int selected = table.getSelectionModel().getSelectedIndex();
+                if (selected > 0) {
+                    ranking.move(selected, selected - 1);
+                    table.getSelectionModel().clearAndSelect(selected - 1);
+                    recordFeedback(paperHash, ranking.get(selected - 1), RecommendationFeedbackLog.Action.MOVE_UP, selected, selected - 1);
+                } else if ((selected < 0) && !ranking.isEmpty()) {
+                    ranking.rotateUp();
+                    int last = ranking.size() - 1;
+                    recordFeedback(paperHash, ranking.get(last), RecommendationFeedbackLog.Action.ROTATE_UP, 0, last);
                 }
-                table.getItems().get(0).setRno(table.getItems().size());
-                modifiedData.add(table.getItems().get(0));
-                table.setItems(modifiedData);
             }
         });
 
@@ -584,16 +811,15 @@ public class RelatedArticlesTab extends EntryEditorTab {
         btnDown.setStyle("-fx-text-fill: #07889b;");
         btnDown.setOnAction(new EventHandler<ActionEvent>() {
             @Override public void handle(ActionEvent e) {
-
-                ObservableList<RelatedArticleRecommendation> modifiedData = FXCollections.observableArrayList();
-                table.getItems().get(table.getItems().size() - 1).setRno(1);
-                modifiedData.add(table.getItems().get(table.getItems().size() - 1));
-                for (int i = 0, j = 2; i < table.getItems().size() - 1; i++, j++)
-                {
-                    table.getItems().get(i).setRno(j);
-                    modifiedData.add(table.getItems().get(i));
+                int selected = table.getSelectionModel().getSelectedIndex();
+                if ((selected >= 0) && (selected < (ranking.size() - 1))) {
+                    ranking.move(selected, selected + 1);
+                    table.getSelectionModel().clearAndSelect(selected + 1);
+                    recordFeedback(paperHash, ranking.get(selected + 1), RecommendationFeedbackLog.Action.MOVE_DOWN, selected, selected + 1);
+                } else if ((selected < 0) && !ranking.isEmpty()) {
+                    ranking.rotateDown();
+                    recordFeedback(paperHash, ranking.get(0), RecommendationFeedbackLog.Action.ROTATE_DOWN, ranking.size() - 1, 0);
                 }
-                table.setItems(modifiedData);
             }
         });
 
@@ -604,11 +830,85 @@ public class RelatedArticlesTab extends EntryEditorTab {
         return buttons;
     }
 
+    private static void recordFeedback(long paperHash, RelatedArticleRecommendation recommendation,
+                                       RecommendationFeedbackLog.Action action, int from, int to) {
+        FEEDBACK_LOG.record(new RecommendationFeedbackLog.FeedbackEvent(System.currentTimeMillis(), paperHash,
+                RecommendationFeedbackLog.hashTitle(recommendation.getTitle()), action, from, to));
+    }
+
+    /**
+     * Creates the controls for precomputing the recommendations of all entries of the library in the background.
+     * The controls are created once per tab and moved to the view of the currently selected entry.
+     * @param database Library whose recommendations are precomputed
+     * @return HBox with the precomputation controls
+     */
+    private HBox getPrecomputeControls(BibDatabase database)
+    {
+        Button btnStart = new Button(Localization.lang("Precompute recommendations for library"));
+        Button btnPause = new Button(Localization.lang("Pause"));
+        Button btnCancel = new Button(Localization.lang("Cancel"));
+        ProgressBar progressBar = new ProgressBar(0);
+        Label status = new Label();
+        btnPause.setDisable(true);
+        btnCancel.setDisable(true);
+        progressBar.setVisible(false);
+
+        RecommendationPrecomputeJob job = new RecommendationPrecomputeJob(MR_DLIB_SOURCE, RECOMMENDATION_CACHE,
+                RecommendationPrecomputeJob.DEFAULT_CONCURRENCY,
+                new TokenBucketRateLimiter(RecommendationPrecomputeJob.DEFAULT_REQUESTS_PER_SECOND, 1),
+                new RecommendationPrecomputeJob.ProgressListener() {
+                    @Override
+                    public void onProgress(int processed, int total, int failed) {
+                        Platform.runLater(() -> {
+                            progressBar.setProgress(total == 0 ? 1 : (double) processed / total);
+                            status.setText(Localization.lang("%0 of %1 entries", String.valueOf(processed), String.valueOf(total)));
+                        });
+                    }
+
+                    @Override
+                    public void onFinished(int processed, int total, int failed) {
+                        Platform.runLater(() -> {
+                            btnStart.setDisable(false);
+                            btnPause.setDisable(true);
+                            btnPause.setText(Localization.lang("Pause"));
+                            btnCancel.setDisable(true);
+                            status.setText(Localization.lang("Recommendations precomputed for %0 of %1 entries (%2 failed)",
+                                    String.valueOf(processed - failed), String.valueOf(total), String.valueOf(failed)));
+                        });
+                    }
+                });
+        precomputeJob = Optional.of(job);
+
+        btnStart.setOnAction(event -> {
+            btnStart.setDisable(true);
+            btnPause.setDisable(false);
+            btnCancel.setDisable(false);
+            progressBar.setVisible(true);
+            job.start(new ArrayList<>(database.getEntries()));
+        });
+        btnPause.setOnAction(event -> {
+            if (job.isPaused()) {
+                job.resume();
+                btnPause.setText(Localization.lang("Pause"));
+            } else {
+                job.pause();
+                btnPause.setText(Localization.lang("Resume"));
+            }
+        });
+        btnCancel.setOnAction(event -> job.cancel());
+
+        HBox controls = new HBox();
+        controls.setSpacing(10);
+        controls.setAlignment(Pos.CENTER_LEFT);
+        controls.getChildren().addAll(btnStart, btnPause, btnCancel, progressBar, status);
+        return controls;
+    }
+
     /**
      * Creates a ScrollPane for holding context information
      * @return ScrollPane
      */
-    private ScrollPane getContextInformationPane()
+    private ScrollPane getContextInformationPane(EntryBindingScope scope)
     {
         ScrollPane content = new ScrollPane();
         content.setFitToWidth(true);
@@ -627,15 +927,21 @@ public class RelatedArticlesTab extends EntryEditorTab {
         temp.setWrapText(true);
         vBox.getChildren().add(temp);
 
-        contextInfoProperty.addListener(new ChangeListener() {
+        scope.addListener(contextInfoProperty, new ChangeListener<Boolean>() {
             @Override
-            public void changed(ObservableValue o, Object oldVal, Object newVal) {
+            public void changed(ObservableValue<? extends Boolean> o, Boolean oldVal, Boolean newVal) {
                 Tooltip.install(content, new Tooltip(Localization.lang("You are shown the social context because you clicked \"" + clickedAuthorName + "\"")));
                 vBox.getChildren().clear();
                 Label temp = new Label(Localization.lang("Context Information"));
                 temp.setStyle("-fx-text-fill: #e37272;");
                 temp.setFont(Font.font(Font.getDefault().getFamily(), FontPosture.ITALIC, 20));
                 vBox.getChildren().add(temp);
+                addLibraryContext(vBox);
+                if (papersUnavailable) {
+                    Label unavailable = new Label(Localization.lang("Google Scholar is not available at the moment. Please try again later."));
+                    unavailable.setWrapText(true);
+                    vBox.getChildren().add(unavailable);
+                }
                 for (Map.Entry<String,String> entry : papers.entrySet()) {
                     Hyperlink h = new Hyperlink(entry.getKey());
                     h.setOnAction(event -> {
@@ -651,10 +957,11 @@ public class RelatedArticlesTab extends EntryEditorTab {
                 }
             }
         });
-        resultsLoadingProperty.addListener(new ChangeListener() {
+        scope.addListener(resultsLoadingProperty, new ChangeListener<Boolean>() {
             @Override
-            public void changed(ObservableValue o, Object oldVal, Object newVal) {
+            public void changed(ObservableValue<? extends Boolean> o, Boolean oldVal, Boolean newVal) {
                 vBox.getChildren().clear();
+                addLibraryContext(vBox);
                 Label temp = new Label(Localization.lang("Loading results..."));
                 temp.setStyle("-fx-text-fill: #07889b;");
                 temp.setFont(Font.font(Font.getDefault().getFamily(), FontPosture.ITALIC, 20));
@@ -668,12 +975,93 @@ public class RelatedArticlesTab extends EntryEditorTab {
         return content;
     }
 
+    /**
+     * Looks up the entries and the most frequent co-authors of the given authors in the open library in the background
+     * and shows them in the context information, unless the tab was bound to another entry in the meantime
+     * @param authorField Authors of the clicked recommendation
+     * @param scope Scope of the binding the authors were clicked in
+     */
+    private void updateLibraryContext(String authorField, EntryBindingScope scope) {
+        if (!authorIndex.isPresent()) {
+            return;
+        }
+
+        AuthorIndex index = authorIndex.get();
+        List<BibEntry> entries = new ArrayList<>();
+        List<AuthorName> coAuthors = new ArrayList<>();
+        BackgroundTask
+                .wrap(() -> {
+                    List<AuthorName> authors = AuthorName.parseRecommendedAuthors(authorField);
+                    Set<BibEntry> foundEntries = new LinkedHashSet<>();
+                    Set<AuthorName> foundCoAuthors = new LinkedHashSet<>();
+                    for (AuthorName author : authors) {
+                        foundEntries.addAll(index.getEntries(author));
+                        foundCoAuthors.addAll(index.getCoAuthors(author, MAX_LIBRARY_CO_AUTHORS));
+                    }
+                    foundCoAuthors.removeAll(authors);
+                    foundEntries.stream().limit(MAX_LIBRARY_ENTRIES).forEach(entries::add);
+                    foundCoAuthors.stream().limit(MAX_LIBRARY_CO_AUTHORS).forEach(coAuthors::add);
+                    return null;
+                })
+                .onSuccess(result -> {
+                    if (scope.isDisposed()) {
+                        return;
+                    }
+                    libraryEntries = entries;
+                    libraryCoAuthors = coAuthors;
+                    // Redraw the context information, keeping the Scholar results if they arrived first
+                    if (authorField.equals(clickedAuthorName)) {
+                        contextInfoProperty.set(!contextInfoProperty.get());
+                    } else {
+                        resultsLoadingProperty.set(!resultsLoadingProperty.get());
+                    }
+                })
+                .onFailure(exception -> LOGGER.warn("Could not look up the authors in the library", exception))
+                .executeWith(Globals.TASK_EXECUTOR);
+    }
+
+    /**
+     * Drops the library context of the authors clicked for the previous entry
+     */
+    private void clearLibraryContext() {
+        libraryEntries = Collections.emptyList();
+        libraryCoAuthors = Collections.emptyList();
+    }
+
+    /**
+     * Adds the entries and co-authors found by {@link #updateLibraryContext(String, EntryBindingScope)} to the context information
+     * @param vBox VBox of the context information pane
+     */
+    private void addLibraryContext(VBox vBox) {
+        if (libraryEntries.isEmpty()) {
+            return;
+        }
+
+        Label heading = new Label(Localization.lang("In this library"));
+        heading.setStyle("-fx-text-fill: #07889b; -fx-font-weight: bold;");
+        vBox.getChildren().add(heading);
+        for (BibEntry entry : libraryEntries) {
+            Label title = new Label(entry.getTitle().orElse(""));
+            title.setWrapText(true);
+            vBox.getChildren().add(title);
+        }
+        if (!libraryCoAuthors.isEmpty()) {
+            List<String> names = new ArrayList<>(libraryCoAuthors.size());
+            for (AuthorName coAuthor : libraryCoAuthors) {
+                names.add(coAuthor.getDisplayName());
+            }
+            Label coAuthors = new Label(Localization.lang("Frequent co-authors: %0", String.join(", ", names)));
+            coAuthors.setWrapText(true);
+            vBox.getChildren().add(coAuthors);
+        }
+    }
+
     /**
      * Returns a consent dialog used to ask permission to send data to Mr. DLib.
-     * @param entry Currently selected BibEntry. (required to allow reloading of pane if accepted)
+     * @param reload Shows the related articles once the user accepted
      * @return StackPane returned to be placed into Related Articles tab.
      */
-    private ScrollPane getPrivacyDialog(BibEntry entry) {
+    private ScrollPane getPrivacyDialog(Runnable reload) {
         ScrollPane root = new ScrollPane();
         root.getStyleClass().add("related-articles-tab");
         VBox vbox = new VBox();
@@ -717,7 +1105,7 @@ public class RelatedArticlesTab extends EntryEditorTab {
             prefs.putBoolean(JabRefPreferences.SEND_OS_DATA, cbOS.isSelected());
             prefs.putBoolean(JabRefPreferences.SEND_TIMEZONE_DATA, cbTimezone.isSelected());
             dialogService.showWarningDialogAndWait(Localization.lang("Restart"), Localization.lang("Please restart JabRef for preferences to take effect."));
-            setContent(getRelatedArticlesPane(entry));
+            reload.run();
         });
 
         vbox.getChildren().addAll(line1, line2, mdlLink, line3, vb, button);
@@ -726,18 +1114,156 @@ public class RelatedArticlesTab extends EntryEditorTab {
         return root;
     }
 
+    /**
+     * Sets the order in which the user browses the entries, e.g. the current sort order of the main table.
+     * The neighbours of the selected entry in this order are prefetched. By default, the order of the database is used.
+     */
+    public void setEntryOrder(Supplier<List<BibEntry>> entryOrder) {
+        this.entryOrder = entryOrder;
+        this.entryOrderSet = true;
+    }
+
+    /**
+     * Stops all fetches of the tab, including a running precomputation, and releases the indexes of its library, which
+     * otherwise keep listening to the changes of the library. To be called when the entry editor or the library of the tab is closed.
+     */
+    public void close() {
+        fetchScheduler.cancel();
+        bindingScope.dispose();
+        prefetcher.shutdown();
+        attachDatabase(Optional.empty());
+    }
+
+    private void closeIndexes() {
+        // The precomputation works on the entries of the library, so it is stopped together with its indexes
+        precomputeJob.ifPresent(RecommendationPrecomputeJob::cancel);
+        precomputeJob = Optional.empty();
+        localIndex.ifPresent(LocalRecommendationIndex::close);
+        authorIndex.ifPresent(AuthorIndex::close);
+        duplicateIndex.ifPresent(LibraryDuplicateIndex::close);
+        reRanker.ifPresent(RecommendationReRanker::close);
+    }
+
+    /**
+     * Attaches the library of the given entry if the tab was created without one. The entry is looked up in the active
+     * database only, entries of other libraries are shown with the recommendations of Mr. DLib only.
+     */
+    private void attachDatabaseOf(BibEntry entry) {
+        if (followActiveDatabase) {
+            attachDatabase(Globals.stateManager.getActiveDatabase()
+                                               .map(BibDatabaseContext::getDatabase)
+                                               .filter(db -> db.containsEntryWithId(entry.getId())));
+        }
+    }
+
     @Override
     public boolean shouldShow(BibEntry entry) {
         return preferences.shouldShowRecommendationsTab();
     }
 
+    /**
+     * Sets the listener notified about the progress of the bindings, e.g. by load scenarios
+     */
+    void setBindingListener(BindingListener bindingListener) {
+        this.bindingListener = bindingListener;
+    }
+
+    /**
+     * @return Number of recommendation source fetches not yet finished, including those waiting for a thread
+     */
+    int getRunningFetches() {
+        return recommendationStream.getRunningFetches();
+    }
+
     @Override
     protected void bindToEntry(BibEntry entry) {
+        bindToEntry(entry, preferences.isMrdlibAccepted());
+    }
+
+    /**
+     * Binds the tab to the given entry.
+     * @param mrDLibAccepted Whether the user agreed to send data to Mr. DLib, otherwise the consent dialog is shown
+     */
+    void bindToEntry(BibEntry entry, boolean mrDLibAccepted) {
+        fetchScheduler.cancel();
+        // Release everything attached for the previous entry
+        bindingScope.dispose();
+        bindingScope = new EntryBindingScope();
+        bindingScope.onDispose(this::clearLibraryContext);
+        bindingScope.onDispose(libraryDuplicates::clear);
+        attachDatabaseOf(entry);
+        // The neighbours of the new entry are prefetched once its fetch is started
+        prefetcher.cancel();
+
         // Ask for consent to send data to Mr. DLib on first time to tab
-        if (preferences.isMrdlibAccepted()) {
-            setContent(getRelatedArticlesPane(entry));
+        if (mrDLibAccepted) {
+            setContent(getRelatedArticlesPane(entry, bindingScope));
+        } else {
+            setContent(getPrivacyDialog(() -> setContent(getRelatedArticlesPane(entry, bindingScope))));
+        }
+    }
+
+    /**
+     * Binds the tab to several entries, e.g. the selected entries of the main table or the entries of a group, and
+     * shows the articles recommended for most of them. A single entry is bound as by {@link #bindToEntry(BibEntry)}.
+     */
+    public void bindToEntries(List<BibEntry> entries) {
+        bindToEntries(entries, preferences.isMrdlibAccepted());
+    }
+
+    /**
+     * Binds the tab to several entries.
+     * @param mrDLibAccepted Whether the user agreed to send data to Mr. DLib, otherwise the consent dialog is shown
+     */
+    void bindToEntries(List<BibEntry> entries, boolean mrDLibAccepted) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        if (entries.size() == 1) {
+            bindToEntry(entries.get(0), mrDLibAccepted);
+            return;
+        }
+
+        fetchScheduler.cancel();
+        bindingScope.dispose();
+        bindingScope = new EntryBindingScope();
+        bindingScope.onDispose(this::clearLibraryContext);
+        bindingScope.onDispose(libraryDuplicates::clear);
+        attachDatabaseOf(entries.get(0));
+        // Neighbours of a selection are not worth prefetching
+        prefetcher.cancel();
+
+        List<BibEntry> selection = new ArrayList<>(entries);
+        if (mrDLibAccepted) {
+            setContent(getAggregatedArticlesPane(selection, bindingScope));
         } else {
-            setContent(getPrivacyDialog(entry));
+            setContent(getPrivacyDialog(() -> setContent(getAggregatedArticlesPane(selection, bindingScope))));
         }
     }
+
+    /**
+     * Progress of the bindings of the tab. Called on the JavaFX thread.
+     */
+    interface BindingListener {
+
+        BindingListener NONE = new BindingListener() {
+            @Override
+            public void onFirstRecommendations(BibEntry entry) {
+            }
+
+            @Override
+            public void onFinished(BibEntry entry, int recommendations) {
+            }
+        };
+
+        /**
+         * The first recommendations of the given entry were added to the table
+         */
+        void onFirstRecommendations(BibEntry entry);
+
+        /**
+         * All recommendation sources of the given entry finished, unless the entry was left before
+         */
+        void onFinished(BibEntry entry, int recommendations);
+    }
 }
@@ -0,0 +1,45 @@
+package org.jabref.gui.entryeditor;
+
+import java.util.Optional;
+
+/**
+ * Immutable search result of Google Scholar, as extracted by {@link ScholarResultParser}.
+ */
+public class ScholarResult {
+
+    private final String title;
+    private final String url;
+    private final String authors;
+    private final Optional<String> year;
+
+    public ScholarResult(String title, String url, String authors, Optional<String> year) {
+        this.title = title;
+        this.url = url;
+        this.authors = authors;
+        this.year = year;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    /**
+     * @return Authors as shown by Scholar, i.e. abbreviated and possibly truncated
+     */
+    public String getAuthors() {
+        return authors;
+    }
+
+    public Optional<String> getYear() {
+        return year;
+    }
+
+    @Override
+    public String toString() {
+        return title + " | " + url + " | " + authors + " | " + year.orElse("");
+    }
+}
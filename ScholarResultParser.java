@@ -0,0 +1,90 @@
+package org.jabref.gui.entryeditor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.select.Collector;
+import org.jsoup.select.Evaluator;
+import org.jsoup.select.QueryParser;
+
+/**
+ * Extracts the search results from a Google Scholar result page.
+ * <p>
+ * All selectors are compiled once. The page is walked once to find the result blocks, and each block is only searched
+ * within its own subtree, so parsing is linear in the size of the page. Results without a title link, e.g. citations
+ * only known from references, are skipped.
+ */
+public class ScholarResultParser {
+
+    private static final Evaluator RESULT = QueryParser.parse("div.gs_ri");
+    private static final Evaluator TITLE_LINK = QueryParser.parse("h3.gs_rt a[href]");
+    private static final Evaluator AUTHORS_LINE = QueryParser.parse("div.gs_a");
+    // Authors, venue and publisher are separated by dashes, e.g. "J Doe, A Smith - Nature, 2015 - nature.com"
+    private static final Pattern SEPARATOR = Pattern.compile("[\\s\\u00a0]+-[\\s\\u00a0]+");
+    private static final Pattern YEAR = Pattern.compile("\\b(1[5-9]|20)\\d{2}\\b");
+
+    /**
+     * @param html    The result page
+     * @param baseUrl URL of the page, used to resolve relative links
+     * @param maxResults Maximal number of returned results
+     */
+    public List<ScholarResult> parse(String html, String baseUrl, int maxResults) {
+        return parse(Jsoup.parse(html, baseUrl), maxResults);
+    }
+
+    /**
+     * @param document   The result page
+     * @param maxResults Maximal number of returned results
+     * @return The results in the order of the page
+     */
+    public List<ScholarResult> parse(Document document, int maxResults) {
+        List<ScholarResult> results = new ArrayList<>(Math.min(maxResults, 20));
+        for (Element result : Collector.collect(RESULT, document)) {
+            if (results.size() >= maxResults) {
+                break;
+            }
+
+            Element titleLink = Collector.findFirst(TITLE_LINK, result);
+            if (titleLink == null) {
+                continue;
+            }
+            String title = titleLink.text().trim();
+            if (title.isEmpty()) {
+                continue;
+            }
+            String url = titleLink.absUrl("href");
+            if (url.isEmpty()) {
+                url = titleLink.attr("href");
+            }
+
+            Element authorsLine = Collector.findFirst(AUTHORS_LINE, result);
+            String authors = "";
+            Optional<String> year = Optional.empty();
+            if (authorsLine != null) {
+                String[] parts = SEPARATOR.split(authorsLine.text(), 3);
+                authors = parts[0].trim();
+                year = findYear(parts.length > 1 ? parts[1] : "");
+            }
+            results.add(new ScholarResult(title, url, authors, year));
+        }
+        return results;
+    }
+
+    /**
+     * Finds the last year of the given venue, e.g. "Nature, 2015"
+     */
+    private static Optional<String> findYear(String venue) {
+        Matcher matcher = YEAR.matcher(venue);
+        String year = null;
+        while (matcher.find()) {
+            year = matcher.group();
+        }
+        return Optional.ofNullable(year);
+    }
+}
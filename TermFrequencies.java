@@ -0,0 +1,80 @@
+package org.jabref.gui.entryeditor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Counts how often terms occur, keyed by the term hashes of {@link TermTokenizer}.
+ * <p>
+ * Terms get dense ids in order of their first occurrence. Only the first occurrence of a term is converted into a
+ * string, all further occurrences merely increment a primitive counter.
+ */
+public class TermFrequencies {
+
+    private final LongIntHashMap ids = new LongIntHashMap(256);
+    private final List<String> terms = new ArrayList<>();
+    private int[] counts = new int[256];
+    private int total;
+
+    /**
+     * Counts one more occurrence of the given term
+     */
+    public void add(long hash, CharSequence term) {
+        int id = ids.get(hash, -1);
+        if (id < 0) {
+            id = terms.size();
+            ids.put(hash, id);
+            terms.add(term.toString());
+            if (id == counts.length) {
+                counts = Arrays.copyOf(counts, id * 2);
+            }
+        }
+        counts[id]++;
+        total++;
+    }
+
+    /**
+     * @return Number of distinct terms
+     */
+    public int size() {
+        return terms.size();
+    }
+
+    /**
+     * @return Number of counted occurrences of all terms
+     */
+    public int getTotal() {
+        return total;
+    }
+
+    public int getCount(long hash) {
+        int id = ids.get(hash, -1);
+        return id < 0 ? 0 : counts[id];
+    }
+
+    public String getTerm(int id) {
+        return terms.get(id);
+    }
+
+    public int getCountById(int id) {
+        return counts[id];
+    }
+
+    /**
+     * @return Ids of the most frequent terms, the most frequent one first. Ties are broken by first occurrence.
+     */
+    public int[] getMostFrequent(int limit) {
+        Integer[] order = new Integer[terms.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (first, second) -> counts[second] != counts[first] ? Integer.compare(counts[second], counts[first]) : Integer.compare(first, second));
+
+        int[] mostFrequent = new int[Math.min(limit, order.length)];
+        for (int i = 0; i < mostFrequent.length; i++) {
+            mostFrequent[i] = order[i];
+        }
+        return mostFrequent;
+    }
+}
@@ -0,0 +1,276 @@
+package org.jabref.gui.entryeditor;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.jabref.Globals;
+import org.jabref.preferences.JabRefPreferences;
+
+/**
+ * Splits titles and abstracts into lower case terms, without allocating a string per term.
+ * <p>
+ * Each term is identified by a 64 bit hash of its characters, which is used as key of primitive maps such as
+ * {@link LongIntHashMap}. BibTeX markup is removed while tokenizing: braces are ignored, math between dollar signs is
+ * skipped, accent commands like {@code {\"o}} are folded into the accented letter and other commands are dropped.
+ * Digits-only terms, terms shorter than {@link #MIN_TERM_LENGTH} and stop words of English and of the configured
+ * language are skipped. Instances are immutable and can be shared between threads.
+ */
+public class TermTokenizer {
+
+    public static final int MIN_TERM_LENGTH = 3;
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    /** Accent commands, first the symbols and then the letters like in {@code \c{c}} */
+    private static final String ACCENTS = "\"'`^~=.cvuHkrdb";
+    private static final int SYMBOL_ACCENTS = 7;
+    private static final char[] COMBINING_MARKS = {'\u0308', '\u0301', '\u0300', '\u0302', '\u0303', '\u0304', '\u0307',
+            '\u0327', '\u030C', '\u0306', '\u030B', '\u0328', '\u030A', '\u0323', '\u0331'};
+    /** Letters with accents by accent index and base letter */
+    private static final char[][] ACCENTED = new char[ACCENTS.length()][128];
+    private static final Map<String, String> LETTER_COMMANDS = new HashMap<>();
+
+    private static final List<String> ENGLISH_STOP_WORDS = Arrays.asList(
+            "about", "above", "after", "again", "all", "also", "among", "and", "any", "are", "based", "been", "before",
+            "being", "between", "both", "but", "can", "could", "does", "during", "each", "for", "from", "further",
+            "had", "has", "have", "here", "how", "however", "into", "its", "may", "more", "most", "new", "not", "now",
+            "off", "one", "only", "other", "our", "out", "over", "paper", "same", "shall", "should", "show", "shown",
+            "some", "such", "than", "that", "the", "their", "them", "then", "there", "these", "they", "this", "those",
+            "through", "thus", "two", "under", "use", "used", "using", "very", "was", "were", "what", "when", "where",
+            "which", "while", "who", "why", "will", "with", "within", "without", "would", "you", "your");
+    private static final Map<String, List<String>> STOP_WORDS = new HashMap<>();
+
+    static {
+        for (int accent = 0; accent < ACCENTS.length(); accent++) {
+            for (char letter = 'A'; letter <= 'z'; letter++) {
+                String composed = Normalizer.normalize(letter + String.valueOf(COMBINING_MARKS[accent]), Normalizer.Form.NFC);
+                ACCENTED[accent][letter] = composed.length() == 1 ? composed.charAt(0) : letter;
+            }
+        }
+
+        LETTER_COMMANDS.put("ss", "ß");
+        LETTER_COMMANDS.put("o", "ø");
+        LETTER_COMMANDS.put("O", "Ø");
+        LETTER_COMMANDS.put("ae", "æ");
+        LETTER_COMMANDS.put("AE", "Æ");
+        LETTER_COMMANDS.put("oe", "œ");
+        LETTER_COMMANDS.put("OE", "Œ");
+        LETTER_COMMANDS.put("aa", "å");
+        LETTER_COMMANDS.put("AA", "Å");
+        LETTER_COMMANDS.put("l", "ł");
+        LETTER_COMMANDS.put("L", "Ł");
+        LETTER_COMMANDS.put("i", "i");
+        LETTER_COMMANDS.put("j", "j");
+
+        STOP_WORDS.put("de", Arrays.asList(
+                "aber", "als", "auch", "auf", "aus", "bei", "bis", "das", "dass", "dem", "den", "der", "des", "die",
+                "dies", "diese", "dieser", "durch", "ein", "eine", "einem", "einen", "einer", "eines", "für", "hat",
+                "ist", "kann", "mit", "nach", "nicht", "oder", "sich", "sie", "sind", "über", "und", "unter", "vom",
+                "von", "vor", "wie", "wird", "werden", "zum", "zur", "zwischen"));
+        STOP_WORDS.put("fr", Arrays.asList(
+                "aux", "avec", "ces", "cette", "dans", "des", "elle", "est", "leur", "les", "mais", "nous", "par",
+                "pas", "plus", "pour", "qui", "que", "sont", "sur", "une", "vous"));
+        STOP_WORDS.put("es", Arrays.asList(
+                "como", "con", "del", "entre", "está", "las", "los", "más", "para", "pero", "por", "que", "sin",
+                "sobre", "son", "una", "uno", "unos"));
+        STOP_WORDS.put("it", Arrays.asList(
+                "che", "con", "del", "della", "delle", "dei", "degli", "gli", "nel", "nella", "per", "più", "sono",
+                "sul", "una", "uno"));
+        STOP_WORDS.put("nl", Arrays.asList(
+                "aan", "als", "bij", "dat", "deze", "die", "een", "het", "hun", "met", "niet", "naar", "ook", "over",
+                "van", "voor", "wordt", "zijn"));
+        STOP_WORDS.put("pt", Arrays.asList(
+                "com", "como", "das", "dos", "entre", "não", "para", "pela", "pelo", "por", "que", "sem", "sobre",
+                "são", "uma", "umas", "uns"));
+    }
+
+    private final LongIntHashMap stopWords;
+
+    /**
+     * @param language Language code as stored in the {@link JabRefPreferences#LANGUAGE} preference, e.g. "de"
+     */
+    public TermTokenizer(String language) {
+        List<String> languageStopWords = STOP_WORDS.getOrDefault(language.toLowerCase(Locale.ROOT), Collections.emptyList());
+        stopWords = new LongIntHashMap(ENGLISH_STOP_WORDS.size() + languageStopWords.size());
+        for (String word : ENGLISH_STOP_WORDS) {
+            stopWords.put(hash(word), 1);
+        }
+        for (String word : languageStopWords) {
+            stopWords.put(hash(word), 1);
+        }
+    }
+
+    /**
+     * Creates a tokenizer for the language configured in the preferences, English if they are not loaded
+     */
+    public static TermTokenizer forPreferredLanguage() {
+        if (Globals.prefs == null) {
+            return new TermTokenizer("en");
+        }
+        return new TermTokenizer(Globals.prefs.get(JabRefPreferences.LANGUAGE));
+    }
+
+    /**
+     * Hashes the given lower case term the same way as the tokenizer does
+     */
+    public static long hash(CharSequence term) {
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = 0; i < term.length(); i++) {
+            hash = (hash ^ term.charAt(i)) * FNV_PRIME;
+        }
+        return hash;
+    }
+
+    /**
+     * Passes all terms of the given text to the consumer, in order of their occurrence
+     */
+    public void tokenize(CharSequence text, TermConsumer consumer) {
+        StringBuilder term = new StringBuilder(32);
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                term.append(Character.toLowerCase(c));
+                i++;
+            } else if ((c == '{') || (c == '}')) {
+                i++;
+            } else if (c == '$') {
+                emit(term, consumer);
+                i = skipMath(text, i);
+            } else if (c == '\\') {
+                i = readCommand(text, i + 1, term, consumer);
+            } else {
+                emit(term, consumer);
+                i++;
+            }
+        }
+        emit(term, consumer);
+    }
+
+    /**
+     * Counts the terms of all given texts
+     */
+    public TermFrequencies count(List<? extends CharSequence> texts) {
+        TermFrequencies frequencies = new TermFrequencies();
+        for (CharSequence text : texts) {
+            tokenize(text, frequencies::add);
+        }
+        return frequencies;
+    }
+
+    private void emit(StringBuilder term, TermConsumer consumer) {
+        if (term.length() >= MIN_TERM_LENGTH) {
+            long hash = hash(term);
+            if (!stopWords.containsKey(hash) && !isNumber(term)) {
+                consumer.accept(hash, term);
+            }
+        }
+        term.setLength(0);
+    }
+
+    /**
+     * Reads the command following a backslash. Accents and special letters are appended to the current term, other
+     * commands end it.
+     * @return Index after the command
+     */
+    private int readCommand(CharSequence text, int start, StringBuilder term, TermConsumer consumer) {
+        if (start >= text.length()) {
+            return start;
+        }
+
+        char c = text.charAt(start);
+        int accent = ACCENTS.indexOf(c);
+        if ((accent >= 0) && (accent < SYMBOL_ACCENTS)) {
+            return appendAccented(text, start + 1, accent, term);
+        }
+
+        if (!Character.isLetter(c)) {
+            // Escaped symbols like \& or \%
+            emit(term, consumer);
+            return start + 1;
+        }
+
+        int end = start;
+        while ((end < text.length()) && Character.isLetter(text.charAt(end))) {
+            end++;
+        }
+        if ((accent >= 0) && (end == (start + 1)) && (end < text.length())
+                && ((text.charAt(end) == '{') || (text.charAt(end) == ' '))) {
+            return appendAccented(text, end, accent, term);
+        }
+        String letter = LETTER_COMMANDS.get(text.subSequence(start, end).toString());
+        if (letter != null) {
+            term.append(letter.toLowerCase(Locale.ROOT));
+        } else {
+            emit(term, consumer);
+        }
+        return end;
+    }
+
+    /**
+     * Appends the letter following an accent command with the accent applied
+     * @param start Index after the accent command
+     * @return Index after the accented letter
+     */
+    private static int appendAccented(CharSequence text, int start, int accent, StringBuilder term) {
+        int i = start;
+        while ((i < text.length()) && ((text.charAt(i) == '{') || (text.charAt(i) == ' '))) {
+            i++;
+        }
+        if ((i < text.length()) && Character.isLetter(text.charAt(i))) {
+            char letter = text.charAt(i);
+            char accented = letter < 128 ? ACCENTED[accent][letter] : 0;
+            term.append(Character.toLowerCase(accented == 0 ? letter : accented));
+            return i + 1;
+        }
+        return i;
+    }
+
+    /**
+     * @return Index after the closing dollar sign of the math starting at the given index
+     */
+    private static int skipMath(CharSequence text, int start) {
+        int i = start + 1;
+        boolean display = (i < text.length()) && (text.charAt(i) == '$');
+        if (display) {
+            i++;
+        }
+        while (i < text.length()) {
+            char c = text.charAt(i);
+            if (c == '\\') {
+                i += 2;
+            } else if (c == '$') {
+                return display && ((i + 1) < text.length()) && (text.charAt(i + 1) == '$') ? i + 2 : i + 1;
+            } else {
+                i++;
+            }
+        }
+        return i;
+    }
+
+    private static boolean isNumber(CharSequence term) {
+        for (int i = 0; i < term.length(); i++) {
+            if (!Character.isDigit(term.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @FunctionalInterface
+    public interface TermConsumer {
+
+        /**
+         * @param hash Hash of the term, see {@link TermTokenizer#hash(CharSequence)}
+         * @param term The lower case term. Only valid during the call, use {@code toString()} to keep it.
+         */
+        void accept(long hash, CharSequence term);
+    }
+}
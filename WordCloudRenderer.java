@@ -0,0 +1,168 @@
+package org.jabref.gui.entryeditor;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import javafx.embed.swing.SwingFXUtils;
+import javafx.scene.image.Image;
+
+import com.kennycason.kumo.CollisionMode;
+import com.kennycason.kumo.WordCloud;
+import com.kennycason.kumo.WordFrequency;
+import com.kennycason.kumo.font.KumoFont;
+import com.kennycason.kumo.font.scale.LinearFontScalar;
+import com.kennycason.kumo.palette.ColorPalette;
+
+/**
+ * Renders word clouds into JavaFX images.
+ * <p>
+ * Rendering is expensive and thus should happen on a background thread using {@link #render(List)}. Rendered images
+ * are cached by a hash of their input text, so that revisiting an entry does not lay out the cloud again.
+ */
+public class WordCloudRenderer {
+
+    /**
+     * Inputs with more characters than this are rendered with rectangle collision in {@link Mode#AUTO}.
+     */
+    public static final int FAST_MODE_THRESHOLD = 1500;
+    public static final int DEFAULT_CACHE_CAPACITY = 64;
+    /**
+     * Maximal number of words in a cloud
+     */
+    public static final int MAX_WORDS = 50;
+
+    private static final Dimension DIMENSION = new Dimension(200, 200);
+
+    private final Mode mode;
+    private final TermTokenizer tokenizer;
+    private final Map<String, Image> cache;
+
+    public WordCloudRenderer(Mode mode, int cacheCapacity, TermTokenizer tokenizer) {
+        this.mode = mode;
+        this.tokenizer = tokenizer;
+        this.cache = new LinkedHashMap<String, Image>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Image> eldest) {
+                return size() > cacheCapacity;
+            }
+        };
+    }
+
+    /**
+     * Returns the already rendered image for the given text, if any. This is cheap and may be called on the JavaFX thread.
+     */
+    public Optional<Image> getCached(List<String> text) {
+        Image cached;
+        synchronized (cache) {
+            cached = cache.get(getKey(text));
+        }
+        if (cached != null) {
+            RelatedArticlesMetrics.getDefault().increment(RelatedArticlesMetrics.Counter.WORD_CLOUD_CACHE_HITS);
+        }
+        return Optional.ofNullable(cached);
+    }
+
+    /**
+     * Renders the word cloud for the given text, or returns the cached image.
+     * @param text List of strings to use to create the world cloud
+     * @return Image of the word cloud
+     */
+    public Image render(List<String> text) throws IOException {
+        String key = getKey(text);
+        synchronized (cache) {
+            Image cached = cache.get(key);
+            if (cached != null) {
+                RelatedArticlesMetrics.getDefault().increment(RelatedArticlesMetrics.Counter.WORD_CLOUD_CACHE_HITS);
+                return cached;
+            }
+        }
+        RelatedArticlesMetrics.getDefault().increment(RelatedArticlesMetrics.Counter.WORD_CLOUD_CACHE_MISSES);
+
+        WordCloud wordCloud = buildWordCloud(text, getCollisionMode(text), tokenizer);
+        Image image = SwingFXUtils.toFXImage(wordCloud.getBufferedImage(), null);
+        synchronized (cache) {
+            cache.put(key, image);
+        }
+        return image;
+    }
+
+    /**
+     * Determines the collision mode used for the given text. Pixel perfect collision looks better but gets slow for
+     * long abstracts, so the automatic mode falls back to rectangle collision for large inputs.
+     */
+    CollisionMode getCollisionMode(List<String> text) {
+        switch (mode) {
+            case PIXEL_PERFECT:
+                return CollisionMode.PIXEL_PERFECT;
+            case RECTANGLE:
+                return CollisionMode.RECTANGLE;
+            default:
+                int length = 0;
+                for (String part : text) {
+                    length += part.length();
+                }
+                return length > FAST_MODE_THRESHOLD ? CollisionMode.RECTANGLE : CollisionMode.PIXEL_PERFECT;
+        }
+    }
+
+    private String getKey(List<String> text) {
+        return RecommendationCache.hash(mode + "\u0000" + String.join("\u0000", text));
+    }
+
+    /**
+     * Creates a WorldCloud
+     * @param text List of strings to use to create the world cloud
+     * @param collisionMode Collision mode used to place the words
+     * @param tokenizer Tokenizer splitting the text into words
+     * @return WordCloud formed using the given parameters
+     */
+    static WordCloud buildWordCloud(List<String> text, CollisionMode collisionMode, TermTokenizer tokenizer) throws IOException {
+        final List<WordFrequency> wordFrequencies;
+        try (RelatedArticlesMetrics.Timing timing = RelatedArticlesMetrics.getDefault().start(RelatedArticlesMetrics.Phase.FREQUENCY_ANALYSIS)) {
+            wordFrequencies = getWordFrequencies(text, tokenizer);
+        }
+        final WordCloud wordCloud = new WordCloud(DIMENSION, collisionMode);
+        wordCloud.setPadding(1);
+        wordCloud.setBackgroundColor(new Color(0xffffff));
+        wordCloud.setKumoFont(new KumoFont(new java.awt.Font("Verdana", java.awt.Font.BOLD, 12)));
+        wordCloud.setColorPalette(new ColorPalette
+                (new Color(0xe37222),
+                        new Color(0x07889b),
+                        new Color(0x66b9bf),
+                        new Color(0xeeaa7b)));
+        wordCloud.setFontScalar(new LinearFontScalar(5, 24));
+        try (RelatedArticlesMetrics.Timing timing = RelatedArticlesMetrics.getDefault().start(RelatedArticlesMetrics.Phase.CLOUD_BUILD)) {
+            wordCloud.build(wordFrequencies);
+        }
+        return wordCloud;
+    }
+
+    /**
+     * Counts the words of the given text
+     * @return The {@link #MAX_WORDS} most frequent words
+     */
+    static List<WordFrequency> getWordFrequencies(List<String> text, TermTokenizer tokenizer) {
+        TermFrequencies frequencies = tokenizer.count(text);
+        int[] mostFrequent = frequencies.getMostFrequent(MAX_WORDS);
+        List<WordFrequency> wordFrequencies = new ArrayList<>(mostFrequent.length);
+        for (int id : mostFrequent) {
+            wordFrequencies.add(new WordFrequency(frequencies.getTerm(id), frequencies.getCountById(id)));
+        }
+        return wordFrequencies;
+    }
+
+    public enum Mode {
+        /** Exact word shapes, best looking but slowest */
+        PIXEL_PERFECT,
+        /** Bounding box collision, considerably faster for large inputs */
+        RECTANGLE,
+        /** Pixel perfect for short texts, rectangle collision above {@link #FAST_MODE_THRESHOLD} characters */
+        AUTO
+    }
+}
@@ -0,0 +1,92 @@
+package org.jabref.gui.entryeditor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.jabref.model.entry.BibEntry;
+import org.jabref.model.entry.FieldName;
+
+/**
+ * Generates synthetic entries for the benchmarks of the Related articles tab.
+ * <p>
+ * Words are drawn from a fixed pseudo vocabulary with a skewed distribution, so that word frequencies resemble those
+ * of real abstracts. The generator is seeded, thus all benchmark runs work on the same data.
+ */
+public class BenchmarkEntries {
+
+    private static final String[] SYLLABLES = {"ra", "to", "mi", "ne", "ko", "lu", "sa", "ve", "di", "po", "ga", "te",
+            "ber", "lan", "mor", "sin", "tal", "qua", "zen", "fol"};
+    private static final int VOCABULARY_SIZE = 2000;
+    private static final int AUTHOR_COUNT = 300;
+
+    private final Random random;
+    private final String[] vocabulary;
+    private final String[] authors;
+
+    public BenchmarkEntries(long seed) {
+        this.random = new Random(seed);
+        this.vocabulary = new String[VOCABULARY_SIZE];
+        for (int i = 0; i < vocabulary.length; i++) {
+            vocabulary[i] = randomWord(2 + random.nextInt(3));
+        }
+        this.authors = new String[AUTHOR_COUNT];
+        for (int i = 0; i < authors.length; i++) {
+            authors[i] = capitalize(randomWord(2)) + ", " + capitalize(randomWord(2 + random.nextInt(2)));
+        }
+    }
+
+    /**
+     * Creates entries with title, authors, year, URL and an abstract of roughly the given number of characters.
+     * @param abstractLength Length of the abstracts, no abstract is set if zero
+     */
+    public List<BibEntry> createEntries(int count, int abstractLength) {
+        List<BibEntry> entries = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            BibEntry entry = new BibEntry("article");
+            entry.setField(FieldName.TITLE, capitalize(createText(40 + random.nextInt(60))));
+            entry.setField(FieldName.AUTHOR, authors[skewedIndex(authors.length)] + " and " + authors[skewedIndex(authors.length)]);
+            entry.setField(FieldName.YEAR, Integer.toString(1990 + random.nextInt(30)));
+            entry.setField(FieldName.URL, "https://example.org/paper/" + i);
+            if (abstractLength > 0) {
+                entry.setField(FieldName.ABSTRACT, createText(abstractLength));
+            }
+            entries.add(entry);
+        }
+        return entries;
+    }
+
+    /**
+     * Creates a text of roughly the given number of characters
+     */
+    public String createText(int length) {
+        StringBuilder text = new StringBuilder(length + 16);
+        while (text.length() < length) {
+            if (text.length() > 0) {
+                text.append(random.nextInt(12) == 0 ? ". " : " ");
+            }
+            text.append(vocabulary[skewedIndex(vocabulary.length)]);
+        }
+        return text.toString();
+    }
+
+    /**
+     * Draws an index with small indices being much more likely than large ones
+     */
+    private int skewedIndex(int bound) {
+        double value = random.nextDouble();
+        return (int) (value * value * value * bound);
+    }
+
+    private String randomWord(int syllables) {
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i < syllables; i++) {
+            word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+        return word.toString();
+    }
+
+    private static String capitalize(String word) {
+        return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+    }
+}
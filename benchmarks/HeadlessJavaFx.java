@@ -0,0 +1,58 @@
+package org.jabref.gui.entryeditor;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import javafx.application.Platform;
+
+import com.sun.javafx.application.PlatformImpl;
+
+/**
+ * Starts the JavaFX toolkit without a display, so that scene graph construction can be benchmarked on build servers.
+ * <p>
+ * Requires the Monocle glass platform on the classpath and the forked JVM started with {@code -Djava.awt.headless=true
+ * -Dglass.platform=Monocle -Dmonocle.platform=Headless -Dprism.order=sw}, see the {@code @Fork} annotations of the
+ * benchmarks.
+ */
+public final class HeadlessJavaFx {
+
+    private static boolean started;
+
+    private HeadlessJavaFx() {
+    }
+
+    public static synchronized void start() throws InterruptedException {
+        if (started) {
+            return;
+        }
+        CountDownLatch latch = new CountDownLatch(1);
+        PlatformImpl.startup(latch::countDown);
+        latch.await();
+        Platform.setImplicitExit(false);
+        started = true;
+    }
+
+    /**
+     * Runs the given action on the JavaFX thread and waits for its result.
+     */
+    public static <T> T runAndWait(Supplier<T> action) throws InterruptedException {
+        AtomicReference<T> result = new AtomicReference<>();
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        CountDownLatch latch = new CountDownLatch(1);
+        Platform.runLater(() -> {
+            try {
+                result.set(action.get());
+            } catch (RuntimeException e) {
+                failure.set(e);
+            } finally {
+                latch.countDown();
+            }
+        });
+        latch.await();
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+        return result.get();
+    }
+}
@@ -0,0 +1,110 @@
+package org.jabref.gui.entryeditor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.jabref.model.database.BibDatabase;
+import org.jabref.model.entry.BibEntry;
+import org.jabref.model.entry.FieldName;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks flagging a recommendation that is already in the library, which happens on the fetching thread for every
+ * recommendation of Mr. DLib. Half of the recommendations are copies of library entries with a slightly different
+ * title, the other half are new articles. The titles of the copies differ in case and punctuation, or one of their
+ * words is replaced by another. The time per lookup should not grow with the size of the library. The setup fails if
+ * less than {@value #MIN_RECALL} of the copies are found or any new article is flagged.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+public class LibraryDuplicateIndexBenchmark {
+
+    private static final int RECOMMENDATIONS = 1024;
+    private static final double MIN_RECALL = 0.9;
+
+    @Param({"1000", "100000", "300000"})
+    private int librarySize;
+
+    private LibraryDuplicateIndex index;
+    private List<BibEntry> recommendations;
+    private int next;
+
+    @Setup
+    public void setup() {
+        BenchmarkEntries generator = new BenchmarkEntries(42);
+        List<BibEntry> library = generator.createEntries(librarySize, 0);
+        BibDatabase database = new BibDatabase();
+        library.forEach(database::insertEntry);
+        index = new LibraryDuplicateIndex(database, new TermTokenizer("en"));
+        index.update();
+
+        Random random = new Random(42);
+        recommendations = new ArrayList<>(RECOMMENDATIONS);
+        List<BibEntry> newArticles = generator.createEntries(RECOMMENDATIONS / 2, 0);
+        for (int i = 0; i < (RECOMMENDATIONS / 2); i++) {
+            BibEntry original = library.get(random.nextInt(library.size()));
+            String title = original.getTitle().orElse("");
+            BibEntry copy = new BibEntry("article");
+            if ((i % 2) == 0) {
+                // Mr. DLib often differs in case and punctuation
+                copy.setField(FieldName.TITLE, title.toUpperCase() + ".");
+            } else {
+                copy.setField(FieldName.TITLE, replaceWord(title, newArticles.get(i).getTitle().orElse(""), random));
+            }
+            copy.setField(FieldName.AUTHOR, original.getField(FieldName.AUTHOR).orElse(""));
+            recommendations.add(copy);
+            recommendations.add(newArticles.get(i));
+        }
+        checkFlags();
+    }
+
+    /**
+     * Replaces a random word of the given title by a random word of the other title
+     */
+    private static String replaceWord(String title, String otherTitle, Random random) {
+        String[] words = title.split(" ");
+        String[] otherWords = otherTitle.split(" ");
+        words[random.nextInt(words.length)] = otherWords[random.nextInt(otherWords.length)];
+        return String.join(" ", words);
+    }
+
+    private void checkFlags() {
+        int found = 0;
+        for (int i = 0; i < recommendations.size(); i += 2) {
+            if (index.findDuplicate(recommendations.get(i)).isPresent()) {
+                found++;
+            }
+            if (index.findDuplicate(recommendations.get(i + 1)).isPresent()) {
+                throw new IllegalStateException("New article flagged: " + recommendations.get(i + 1).getTitle().orElse(""));
+            }
+        }
+        double recall = (double) found / (RECOMMENDATIONS / 2);
+        if (recall < MIN_RECALL) {
+            throw new IllegalStateException("Only " + found + " of " + (RECOMMENDATIONS / 2) + " copies found");
+        }
+    }
+
+    @Benchmark
+    public Optional<BibEntry> findDuplicate() {
+        next = (next + 1) & (RECOMMENDATIONS - 1);
+        return index.findDuplicate(recommendations.get(next));
+    }
+}
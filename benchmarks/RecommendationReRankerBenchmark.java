@@ -0,0 +1,61 @@
+package org.jabref.gui.entryeditor;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.jabref.model.database.BibDatabase;
+import org.jabref.model.entry.BibEntry;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks re-ranking a batch of remote recommendations against a library, which happens on the fetching thread
+ * before every batch is shown. The library profile is built in the setup, as it is done in the background when the
+ * tab is created. Recommendations have no abstract, like the ones of Mr. DLib.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+public class RecommendationReRankerBenchmark {
+
+    @Param({"1000", "10000"})
+    private int librarySize;
+
+    @Param({"10", "100", "500"})
+    private int recommendations;
+
+    private RecommendationReRanker reRanker;
+    private List<BibEntry> candidates;
+
+    @Setup
+    public void setup() {
+        BenchmarkEntries generator = new BenchmarkEntries(42);
+        BibDatabase database = new BibDatabase();
+        for (BibEntry entry : generator.createEntries(librarySize, 1500)) {
+            database.insertEntry(entry);
+        }
+        AuthorIndex authorIndex = new AuthorIndex(database);
+        authorIndex.update();
+        reRanker = new RecommendationReRanker(database, authorIndex, new TermTokenizer("en"));
+        reRanker.update();
+        candidates = generator.createEntries(recommendations, 0);
+    }
+
+    @Benchmark
+    public List<BibEntry> reRank() {
+        return reRanker.reRank(candidates);
+    }
+}
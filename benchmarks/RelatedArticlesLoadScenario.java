@@ -0,0 +1,341 @@
+package org.jabref.gui.entryeditor;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.jabref.Globals;
+import org.jabref.gui.util.DefaultTaskExecutor;
+import org.jabref.logic.util.BuildInfo;
+import org.jabref.model.database.BibDatabase;
+import org.jabref.model.database.BibDatabaseContext;
+import org.jabref.model.entry.BibEntry;
+import org.jabref.model.entry.FieldName;
+import org.jabref.preferences.JabRefPreferences;
+
+/**
+ * Drives several Related articles tabs against a {@link StubRecommendationServer} and reports the latencies seen by the
+ * user under concurrent load.
+ * <p>
+ * Every tab is bound to one entry after the other, as when browsing a library, by its own driver thread. After the
+ * recommendations of an entry are complete, the authors of the entry are clicked with the given probability, and the
+ * driver pauses for the think time. Reported are the time from binding to the first row of the table, the time to the
+ * complete list of recommendations and the time until the Scholar papers of a clicked author are shown, together with
+ * the depth of the queues of fetches, author lookups and background tasks, sampled while running.
+ * <p>
+ * The scenario runs with a temporary user home, so neither the caches nor the preferences of the user are touched.
+ * Requires the headless JavaFX setup described in {@link HeadlessJavaFx}. Run from the benchmarks directory, or set the
+ * system property {@code recommendation.fixtures}. Options: {@code --tabs n --bindings n --think-time ms
+ * --click-ratio r --latency ms --jitter ms --errors r --throttle r --timeout s}
+ */
+public class RelatedArticlesLoadScenario {
+
+    private static final long SAMPLE_INTERVAL_MILLIS = 20;
+
+    private final Options options;
+    private final List<Long> firstRowNanos = new ArrayList<>();
+    private final List<Long> completeNanos = new ArrayList<>();
+    private final List<Long> authorContextNanos = new ArrayList<>();
+    private final List<Integer> fetchQueueSamples = new ArrayList<>();
+    private final List<Integer> lookupQueueSamples = new ArrayList<>();
+    private final List<Integer> taskQueueSamples = new ArrayList<>();
+    private int timeouts;
+    private int failedClicks;
+
+    private RelatedArticlesLoadScenario(Options options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = Options.parse(args);
+
+        // Keep caches, the feedback log and the preferences away from the user's files. Must happen before the tab is loaded.
+        Path home = Files.createTempDirectory("jabref-load-scenario");
+        System.setProperty("user.home", home.toString());
+
+        Path fixtures = Paths.get(System.getProperty("recommendation.fixtures", "fixtures"));
+        try (StubRecommendationServer server = StubRecommendationServer.start(fixtures, options.behaviour)) {
+            System.setProperty(RecommendationEndpoints.MR_DLIB_URL_PROPERTY, server.getUrl());
+            System.setProperty(RecommendationEndpoints.SCHOLAR_URL_PROPERTY, server.getUrl());
+            Globals.prefs = JabRefPreferences.getInstance();
+            Globals.BUILD_INFO = new BuildInfo();
+            Globals.TASK_EXECUTOR = new DefaultTaskExecutor();
+            HeadlessJavaFx.start();
+
+            RelatedArticlesLoadScenario scenario = new RelatedArticlesLoadScenario(options);
+            long start = System.nanoTime();
+            scenario.run();
+            long elapsed = System.nanoTime() - start;
+
+            System.out.println(scenario.report(elapsed));
+            System.out.println("Stub server: " + server);
+        }
+        System.exit(0);
+    }
+
+    private void run() throws Exception {
+        List<RelatedArticlesTab> tabs = new ArrayList<>();
+        List<Thread> drivers = new ArrayList<>();
+        for (int i = 0; i < options.tabs; i++) {
+            // Titles differ between tabs and runs, so that every binding misses the recommendation cache
+            List<BibEntry> entries = new BenchmarkEntries(System.nanoTime() + i).createEntries(options.bindings, 0);
+            BibDatabase database = new BibDatabase();
+            entries.forEach(database::insertEntry);
+            RelatedArticlesTab tab = HeadlessJavaFx.runAndWait(() -> new RelatedArticlesTab(null, null, new BibDatabaseContext(database)));
+            tabs.add(tab);
+
+            Thread driver = new Thread(() -> drive(tab, entries), "LoadScenario-" + i);
+            driver.setDaemon(true);
+            drivers.add(driver);
+        }
+
+        Thread sampler = new Thread(() -> sample(tabs), "LoadScenario-Sampler");
+        sampler.setDaemon(true);
+        sampler.start();
+        for (Thread driver : drivers) {
+            driver.start();
+        }
+        for (Thread driver : drivers) {
+            driver.join();
+        }
+        sampler.interrupt();
+        sampler.join();
+        HeadlessJavaFx.runAndWait(() -> {
+            tabs.forEach(RelatedArticlesTab::close);
+            return null;
+        });
+    }
+
+    /**
+     * Binds the tab to the given entries one after the other
+     */
+    private void drive(RelatedArticlesTab tab, List<BibEntry> entries) {
+        Map<BibEntry, Binding> bindings = new IdentityHashMap<>();
+        tab.setBindingListener(new RelatedArticlesTab.BindingListener() {
+            @Override
+            public void onFirstRecommendations(BibEntry entry) {
+                Binding binding = bindings.get(entry);
+                if (binding != null) {
+                    binding.firstRow = System.nanoTime();
+                }
+            }
+
+            @Override
+            public void onFinished(BibEntry entry, int recommendations) {
+                Binding binding = bindings.get(entry);
+                if (binding != null) {
+                    binding.complete = System.nanoTime();
+                    binding.finished.countDown();
+                }
+            }
+        });
+
+        Random random = new Random();
+        try {
+            for (BibEntry entry : entries) {
+                Binding binding = new Binding();
+                HeadlessJavaFx.runAndWait(() -> {
+                    bindings.clear();
+                    bindings.put(entry, binding);
+                    binding.start = System.nanoTime();
+                    tab.bindToEntry(entry, true);
+                    return null;
+                });
+
+                if (!binding.finished.await(options.timeoutSeconds, TimeUnit.SECONDS)) {
+                    record(binding, true);
+                    continue;
+                }
+                record(binding, false);
+
+                if (random.nextDouble() < options.clickRatio) {
+                    clickAuthors(tab, entry.getField(FieldName.AUTHOR).orElse(""));
+                }
+                Thread.sleep(options.thinkTimeMillis);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void clickAuthors(RelatedArticlesTab tab, String authors) throws InterruptedException {
+        long start = System.nanoTime();
+        AtomicReference<CompletableFuture<Void>> shown = new AtomicReference<>();
+        HeadlessJavaFx.runAndWait(() -> {
+            shown.set(tab.showAuthorContext(authors.replace(" and ", ";")));
+            return null;
+        });
+        try {
+            shown.get().get(options.timeoutSeconds, TimeUnit.SECONDS);
+            synchronized (this) {
+                authorContextNanos.add(System.nanoTime() - start);
+            }
+        } catch (ExecutionException | TimeoutException e) {
+            synchronized (this) {
+                failedClicks++;
+            }
+        }
+    }
+
+    private synchronized void record(Binding binding, boolean timedOut) {
+        if (timedOut) {
+            timeouts++;
+            return;
+        }
+        // Sources finishing without any recommendation, e.g. after errors, have no first row
+        if (binding.firstRow != 0) {
+            firstRowNanos.add(binding.firstRow - binding.start);
+        }
+        completeNanos.add(binding.complete - binding.start);
+    }
+
+    /**
+     * Samples the number of pending recommendation fetches of all tabs, the queued author lookups and the background
+     * tasks waiting for a thread of the task executor
+     */
+    private void sample(List<RelatedArticlesTab> tabs) {
+        RelatedArticlesMetrics metrics = RelatedArticlesMetrics.getDefault();
+        Optional<ThreadPoolExecutor> taskPool = getTaskExecutorPool();
+        while (!Thread.currentThread().isInterrupted()) {
+            int fetches = 0;
+            for (RelatedArticlesTab tab : tabs) {
+                fetches += tab.getRunningFetches();
+            }
+            int lookups = metrics.getMetrics().getOrDefault("related_articles_author_lookup_queue_depth", 0.0).intValue();
+            synchronized (this) {
+                fetchQueueSamples.add(fetches);
+                lookupQueueSamples.add(lookups);
+                taskPool.ifPresent(pool -> taskQueueSamples.add(pool.getQueue().size()));
+            }
+            try {
+                Thread.sleep(SAMPLE_INTERVAL_MILLIS);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Finds the thread pool behind {@link Globals#TASK_EXECUTOR}, which the {@link DefaultTaskExecutor} does not expose
+     */
+    private static Optional<ThreadPoolExecutor> getTaskExecutorPool() {
+        for (Field field : Globals.TASK_EXECUTOR.getClass().getDeclaredFields()) {
+            if (!ExecutorService.class.isAssignableFrom(field.getType())) {
+                continue;
+            }
+            try {
+                field.setAccessible(true);
+                Object executor = field.get(Modifier.isStatic(field.getModifiers()) ? null : Globals.TASK_EXECUTOR);
+                if (executor instanceof ThreadPoolExecutor) {
+                    return Optional.of((ThreadPoolExecutor) executor);
+                }
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                System.err.println("Cannot sample the task executor: " + e);
+            }
+        }
+        return Optional.empty();
+    }
+
+    private synchronized String report(long elapsedNanos) {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("%d tabs x %d bindings in %.1f s, stub %s%n", options.tabs, options.bindings,
+                elapsedNanos / 1e9, options.behaviour));
+        report.append(formatLatencies("time to first row", firstRowNanos));
+        report.append(formatLatencies("time to complete", completeNanos));
+        report.append(formatLatencies("author context", authorContextNanos));
+        report.append(String.format("timeouts %d, failed author clicks %d%n", timeouts, failedClicks));
+        report.append(formatQueue("running fetches", fetchQueueSamples));
+        report.append(formatQueue("queued author lookups", lookupQueueSamples));
+        if (taskQueueSamples.isEmpty()) {
+            report.append(String.format("%-22s not available%n", "queued background tasks"));
+        } else {
+            report.append(formatQueue("queued background tasks", taskQueueSamples));
+        }
+        return report.toString();
+    }
+
+    private static String formatLatencies(String name, List<Long> nanos) {
+        if (nanos.isEmpty()) {
+            return String.format("%-22s no samples%n", name);
+        }
+        long[] sorted = nanos.stream().mapToLong(Long::longValue).toArray();
+        Arrays.sort(sorted);
+        return String.format("%-22s n=%d p50=%d ms p95=%d ms p99=%d ms max=%d ms%n", name, sorted.length,
+                toMillis(percentile(sorted, 50)), toMillis(percentile(sorted, 95)), toMillis(percentile(sorted, 99)),
+                toMillis(sorted[sorted.length - 1]));
+    }
+
+    private static String formatQueue(String name, List<Integer> samples) {
+        double mean = samples.stream().mapToInt(Integer::intValue).average().orElse(0);
+        int max = samples.stream().mapToInt(Integer::intValue).max().orElse(0);
+        return String.format("%-22s mean=%.1f max=%d%n", name, mean, max);
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        int index = (int) Math.ceil((percentile / 100) * sorted.length) - 1;
+        return sorted[Math.max(0, index)];
+    }
+
+    private static long toMillis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    /**
+     * Timestamps of one binding. Written on the JavaFX thread, read by the driver after the latch was released.
+     */
+    private static class Binding {
+
+        private final CountDownLatch finished = new CountDownLatch(1);
+        private volatile long start;
+        private volatile long firstRow;
+        private volatile long complete;
+    }
+
+    private static class Options {
+
+        private int tabs = 4;
+        private int bindings = 50;
+        private long thinkTimeMillis = 200;
+        private double clickRatio = 0.3;
+        private long timeoutSeconds = 30;
+        private StubRecommendationServer.Behaviour behaviour;
+
+        static Options parse(String[] args) {
+            Map<String, String> values = new HashMap<>();
+            for (int i = 0; (i + 1) < args.length; i += 2) {
+                values.put(args[i], args[i + 1]);
+            }
+
+            Options options = new Options();
+            options.tabs = Integer.parseInt(values.getOrDefault("--tabs", String.valueOf(options.tabs)));
+            options.bindings = Integer.parseInt(values.getOrDefault("--bindings", String.valueOf(options.bindings)));
+            options.thinkTimeMillis = Long.parseLong(values.getOrDefault("--think-time", String.valueOf(options.thinkTimeMillis)));
+            options.clickRatio = Double.parseDouble(values.getOrDefault("--click-ratio", String.valueOf(options.clickRatio)));
+            options.timeoutSeconds = Long.parseLong(values.getOrDefault("--timeout", String.valueOf(options.timeoutSeconds)));
+            options.behaviour = new StubRecommendationServer.Behaviour(
+                    Long.parseLong(values.getOrDefault("--latency", "300")),
+                    Long.parseLong(values.getOrDefault("--jitter", "200")),
+                    Double.parseDouble(values.getOrDefault("--errors", "0.05")),
+                    Double.parseDouble(values.getOrDefault("--throttle", "0.05")));
+            return options;
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package org.jabref.gui.entryeditor;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.ref.WeakReference;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javafx.scene.Node;
+
+import org.jabref.Globals;
+import org.jabref.gui.util.DefaultTaskExecutor;
+import org.jabref.logic.util.BuildInfo;
+import org.jabref.model.entry.BibEntry;
+import org.jabref.preferences.JabRefPreferences;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Binds the Related articles tab to thousands of entries in a row by {@link RelatedArticlesTab#bindToEntry(BibEntry)},
+ * as in a long session of browsing a library. Most entries are passed as while scrolling, every
+ * {@value #SETTLE_INTERVAL}th binding waits until its recommendations are shown, so that views are built, filled and
+ * released again. Recommendations are served by a {@link StubRecommendationServer}.
+ * <p>
+ * Besides the time per session, this guards against leaks across entry switches: after each iteration all fetches are
+ * awaited and the heap is collected. The run fails if the content of any but the current binding is still reachable,
+ * which is also the case if a listener registered on a long-lived observable was not removed, or if the retained heap
+ * grew by more than {@value #MAX_RETAINED_BYTES_PER_BINDING} bytes per binding.
+ * <p>
+ * Run from the benchmarks directory, or set the system property {@code recommendation.fixtures}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx512m", "-Djava.awt.headless=true", "-Dglass.platform=Monocle",
+        "-Dmonocle.platform=Headless", "-Dprism.order=sw"})
+public class RelatedArticlesRebindBenchmark {
+
+    private static final long MAX_RETAINED_BYTES_PER_BINDING = 1024;
+    private static final int SETTLE_INTERVAL = 20;
+    private static final long TIMEOUT_SECONDS = 30;
+
+    @Param({"2000"})
+    private int bindings;
+
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+    private StubRecommendationServer server;
+    private List<BibEntry> entries;
+    private RelatedArticlesTab tab;
+    private List<WeakReference<Node>> contents;
+    private volatile CountDownLatch finished;
+    private long baseline;
+
+    @Setup
+    public void setup() throws IOException, InterruptedException {
+        // Keep caches, the feedback log and the preferences away from the user's files. Must happen before the tab is loaded.
+        System.setProperty("user.home", Files.createTempDirectory("jabref-rebind-benchmark").toString());
+        server = StubRecommendationServer.start(Paths.get(System.getProperty("recommendation.fixtures", "fixtures")),
+                new StubRecommendationServer.Behaviour(5, 0, 0, 0));
+        System.setProperty(RecommendationEndpoints.MR_DLIB_URL_PROPERTY, server.getUrl());
+        System.setProperty(RecommendationEndpoints.SCHOLAR_URL_PROPERTY, server.getUrl());
+        Globals.prefs = JabRefPreferences.getInstance();
+        Globals.BUILD_INFO = new BuildInfo();
+        Globals.TASK_EXECUTOR = new DefaultTaskExecutor();
+        HeadlessJavaFx.start();
+
+        entries = new BenchmarkEntries(42).createEntries(100, 1500);
+        tab = HeadlessJavaFx.runAndWait(() -> new RelatedArticlesTab(null, null));
+        tab.setBindingListener(new RelatedArticlesTab.BindingListener() {
+            @Override
+            public void onFirstRecommendations(BibEntry entry) {
+            }
+
+            @Override
+            public void onFinished(BibEntry entry, int recommendations) {
+                CountDownLatch latch = finished;
+                if (latch != null) {
+                    latch.countDown();
+                }
+            }
+        });
+    }
+
+    @Setup(Level.Iteration)
+    public void measureBaseline() {
+        contents = new ArrayList<>(bindings);
+        baseline = getRetainedHeap();
+    }
+
+    @Benchmark
+    public void bindEntries() throws InterruptedException {
+        for (int i = 0; i < bindings; i++) {
+            BibEntry entry = entries.get(i % entries.size());
+            boolean settle = ((i + 1) % SETTLE_INTERVAL) == 0;
+            CountDownLatch latch = new CountDownLatch(1);
+            finished = settle ? latch : null;
+            HeadlessJavaFx.runAndWait(() -> {
+                tab.bindToEntry(entry, true);
+                contents.add(new WeakReference<>(tab.getContent()));
+                return null;
+            });
+            if (settle && !latch.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("Binding did not finish within " + TIMEOUT_SECONDS + " s");
+            }
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void checkRetained() throws InterruptedException {
+        // Cancelled fetches still hold their views until they return
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+        while ((tab.getRunningFetches() > 0) && (System.nanoTime() < deadline)) {
+            Thread.sleep(10);
+        }
+        // Flush the hand-overs to the JavaFX thread queued by the fetches
+        HeadlessJavaFx.runAndWait(() -> null);
+
+        long growth = getRetainedHeap() - baseline;
+        Node current = HeadlessJavaFx.runAndWait(tab::getContent);
+        int retained = 0;
+        for (WeakReference<Node> content : contents) {
+            Node node = content.get();
+            if ((node != null) && (node != current)) {
+                retained++;
+            }
+        }
+        if (retained > 0) {
+            throw new IllegalStateException(retained + " of " + bindings + " previous bindings are still reachable");
+        }
+        if (growth > (MAX_RETAINED_BYTES_PER_BINDING * bindings)) {
+            throw new IllegalStateException("Heap grew by " + growth + " bytes after " + bindings + " bindings");
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        HeadlessJavaFx.runAndWait(() -> {
+            tab.close();
+            return null;
+        });
+        server.close();
+    }
+
+    private long getRetainedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
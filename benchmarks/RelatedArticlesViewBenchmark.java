@@ -0,0 +1,131 @@
+package org.jabref.gui.entryeditor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javafx.scene.layout.VBox;
+
+import org.jabref.model.entry.BibEntry;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks building the view of the Related articles tab from a list of recommendations: the author frequencies,
+ * the complete scene graph of {@link RelatedArticlesTab#buildRelatedArticleInfo(BibEntry, List)} and the re-rank
+ * operations of the up and down buttons.
+ * <p>
+ * The scene graph is built on a headless JavaFX thread, thus {@code buildView} includes the hand-over to that thread.
+ * Only {@code buildView} shows the abstracts, thus the other benchmarks are not run for every abstract length.
+ * Run e.g. with {@code -p recommendations=10 -prof gc}; latency percentiles are reported by the sample mode.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"-Djava.awt.headless=true", "-Dglass.platform=Monocle",
+        "-Dmonocle.platform=Headless", "-Dprism.order=sw"})
+public class RelatedArticlesViewBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int recommendations;
+
+    private List<BibEntry> entries;
+    private RelatedArticlesTab tab;
+    private RecommendationRanking<RelatedArticleRecommendation> rows;
+
+    @Setup
+    public void setup() throws InterruptedException {
+        HeadlessJavaFx.start();
+        entries = new BenchmarkEntries(42).createEntries(recommendations, 0);
+        tab = HeadlessJavaFx.runAndWait(() -> new RelatedArticlesTab(null, null));
+    }
+
+    @Setup(Level.Iteration)
+    public void setupRows() {
+        rows = new RecommendationRanking<>();
+        List<RelatedArticleRecommendation> recommendations = new ArrayList<>(entries.size());
+        for (int i = 0; i < entries.size(); i++) {
+            recommendations.add(RelatedArticleRecommendation.of(i + 1, entries.get(i)));
+        }
+        rows.addAll(recommendations);
+    }
+
+    @Benchmark
+    public AuthorFrequencies authorFrequencies() {
+        AuthorFrequencies authorFrequencies = new AuthorFrequencies();
+        for (int i = 0; i < entries.size(); i++) {
+            for (AuthorName author : AuthorName.parseRecommendedAuthors(RelatedArticleRecommendation.of(i + 1, entries.get(i)).getAuthors())) {
+                authorFrequencies.add(author);
+            }
+        }
+        return authorFrequencies;
+    }
+
+    /**
+     * Builds the view, releasing the previous one as done when the tab is bound to another entry
+     */
+    @Benchmark
+    public VBox buildView(Abstracts abstracts) throws InterruptedException {
+        return HeadlessJavaFx.runAndWait(() -> {
+            abstracts.scope.dispose();
+            abstracts.scope = new EntryBindingScope();
+            return tab.buildRelatedArticleInfo(abstracts.selectedEntry, new ArrayList<>(abstracts.entries), abstracts.scope);
+        });
+    }
+
+    @Benchmark
+    public RecommendationRanking<RelatedArticleRecommendation> rotateUp() {
+        rows.rotateUp();
+        return rows;
+    }
+
+    @Benchmark
+    public RecommendationRanking<RelatedArticleRecommendation> rotateDown() {
+        rows.rotateDown();
+        return rows;
+    }
+
+    /**
+     * Moves the middle row up by one, as done by the up button for a selected row
+     */
+    @Benchmark
+    public RecommendationRanking<RelatedArticleRecommendation> moveUp() {
+        int middle = rows.size() / 2;
+        rows.move(middle, middle - 1);
+        return rows;
+    }
+
+    /**
+     * Recommendations with abstracts of the given length, as shown by {@code buildView}
+     */
+    @State(Scope.Benchmark)
+    public static class Abstracts {
+
+        @Param({"0", "1500"})
+        private int abstractLength;
+
+        private BibEntry selectedEntry;
+        private List<BibEntry> entries;
+        private EntryBindingScope scope = new EntryBindingScope();
+
+        @Setup
+        public void setup(RelatedArticlesViewBenchmark benchmark) {
+            BenchmarkEntries generator = new BenchmarkEntries(42);
+            selectedEntry = generator.createEntries(1, abstractLength).get(0);
+            entries = generator.createEntries(benchmark.recommendations, abstractLength);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package org.jabref.gui.entryeditor;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the extraction of Google Scholar results from the result pages in {@code fixtures/scholar}. The pages are
+ * synthetic, written by hand after the markup of Scholar result pages, and may drift from the markup Scholar serves.
+ * <p>
+ * Every fixture comes with a {@code .expected} file holding the extracted results, one per line. The setup fails if
+ * the parser deviates from it, thus the fixtures double as regression corpus. Set the system property
+ * {@code scholar.fixtures} if the benchmarks are not run from the benchmarks directory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+public class ScholarResultParserBenchmark {
+
+    private static final String BASE_URL = "https://scholar.google.com/scholar?as_epq=author";
+
+    @Param({"author-beel", "author-bengio-citations", "no-results"})
+    private String fixture;
+
+    private final ScholarResultParser parser = new ScholarResultParser();
+    private String html;
+    private Document document;
+
+    @Setup
+    public void setup() throws IOException {
+        Path directory = Paths.get(System.getProperty("scholar.fixtures", "fixtures/scholar"));
+        html = new String(Files.readAllBytes(directory.resolve(fixture + ".html")), StandardCharsets.UTF_8);
+        document = Jsoup.parse(html, BASE_URL);
+
+        List<String> expected = Files.readAllLines(directory.resolve(fixture + ".expected"), StandardCharsets.UTF_8);
+        List<String> actual = new ArrayList<>();
+        for (ScholarResult result : parser.parse(html, BASE_URL, Integer.MAX_VALUE)) {
+            actual.add(result.toString());
+        }
+        if (!expected.equals(actual)) {
+            throw new IllegalStateException("Results of " + fixture + " differ from the expected ones: " + actual);
+        }
+    }
+
+    /**
+     * Parsing of the HTML and extraction of the results, as done per author lookup
+     */
+    @Benchmark
+    public List<ScholarResult> parsePage() {
+        return parser.parse(html, BASE_URL, AuthorLookupService.MAX_RESULTS);
+    }
+
+    /**
+     * Extraction of the results from an already parsed page
+     */
+    @Benchmark
+    public List<ScholarResult> extractResults() {
+        return parser.parse(document, AuthorLookupService.MAX_RESULTS);
+    }
+}
@@ -0,0 +1,179 @@
+package org.jabref.gui.entryeditor;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Local stand-in for Mr. DLib and Google Scholar, serving the synthetic fixture responses with configurable network
+ * behaviour.
+ * <p>
+ * Requests for related documents are answered with {@code fixtures/mrdlib/related-documents.xml}, Scholar searches with
+ * {@code fixtures/scholar/author-beel.html}. Every response is delayed by the configured latency plus a uniformly
+ * distributed jitter. A share of the requests fails with a server error or is throttled with 429 Too Many Requests and
+ * a Retry-After header. Delayed responses are sent by a scheduler, so slow responses do not tie up server threads and
+ * many requests can be pending at once. Point the tab to the server with the system properties of
+ * {@link RecommendationEndpoints}.
+ */
+public class StubRecommendationServer implements AutoCloseable {
+
+    private static final String MR_DLIB_PATH = "/v1/documents/";
+    private static final String SCHOLAR_PATH = "/scholar";
+
+    private final HttpServer server;
+    private final ScheduledExecutorService responder;
+    private final Behaviour behaviour;
+    private final byte[] mrDLibResponse;
+    private final byte[] scholarResponse;
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder throttled = new LongAdder();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicInteger maxPending = new AtomicInteger();
+
+    private StubRecommendationServer(HttpServer server, Behaviour behaviour, byte[] mrDLibResponse, byte[] scholarResponse) {
+        this.server = server;
+        this.behaviour = behaviour;
+        this.mrDLibResponse = mrDLibResponse;
+        this.scholarResponse = scholarResponse;
+        this.responder = Executors.newScheduledThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "StubRecommendationServer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts a server on a free port of the loopback interface
+     * @param fixtures Directory containing the {@code mrdlib} and {@code scholar} fixtures
+     */
+    public static StubRecommendationServer start(Path fixtures, Behaviour behaviour) throws IOException {
+        byte[] mrDLibResponse = Files.readAllBytes(fixtures.resolve("mrdlib").resolve("related-documents.xml"));
+        byte[] scholarResponse = Files.readAllBytes(fixtures.resolve("scholar").resolve("author-beel.html"));
+
+        HttpServer httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        StubRecommendationServer server = new StubRecommendationServer(httpServer, behaviour, mrDLibResponse, scholarResponse);
+        httpServer.createContext(MR_DLIB_PATH, exchange -> server.handle(exchange, server.mrDLibResponse, "application/xml"));
+        httpServer.createContext(SCHOLAR_PATH, exchange -> server.handle(exchange, server.scholarResponse, "text/html"));
+        httpServer.setExecutor(Executors.newFixedThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "StubRecommendationServer-Accept");
+            thread.setDaemon(true);
+            return thread;
+        }));
+        httpServer.start();
+        return server;
+    }
+
+    /**
+     * @return Base URL of the server, for both services
+     */
+    public String getUrl() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+    }
+
+    private void handle(HttpExchange exchange, byte[] body, String contentType) {
+        requests.increment();
+        int now = pending.incrementAndGet();
+        maxPending.accumulateAndGet(now, Math::max);
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long delay = Math.max(0, behaviour.latencyMillis + random.nextLong(-behaviour.jitterMillis, behaviour.jitterMillis + 1));
+        double outcome = random.nextDouble();
+        responder.schedule(() -> {
+            try {
+                if (outcome < behaviour.throttleRate) {
+                    throttled.increment();
+                    exchange.getResponseHeaders().set("Retry-After", "1");
+                    exchange.sendResponseHeaders(429, -1);
+                } else if (outcome < (behaviour.throttleRate + behaviour.errorRate)) {
+                    errors.increment();
+                    exchange.sendResponseHeaders(503, -1);
+                } else {
+                    exchange.getResponseHeaders().set("Content-Type", contentType + "; charset=UTF-8");
+                    exchange.sendResponseHeaders(200, body.length);
+                    try (OutputStream out = exchange.getResponseBody()) {
+                        out.write(body);
+                    }
+                }
+            } catch (IOException e) {
+                // The client gave up, e.g. after a timeout
+            } finally {
+                exchange.close();
+                pending.decrementAndGet();
+            }
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    public long getRequests() {
+        return requests.sum();
+    }
+
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    public long getThrottled() {
+        return throttled.sum();
+    }
+
+    /**
+     * @return Maximal number of requests waiting for their response at the same time
+     */
+    public int getMaxPending() {
+        return maxPending.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        responder.shutdownNow();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d requests, %d errors, %d throttled, at most %d pending", getRequests(), getErrors(),
+                getThrottled(), getMaxPending());
+    }
+
+    /**
+     * Network behaviour of the stub server
+     */
+    public static class Behaviour {
+
+        private final long latencyMillis;
+        private final long jitterMillis;
+        private final double errorRate;
+        private final double throttleRate;
+
+        /**
+         * @param latencyMillis Mean delay of the responses
+         * @param jitterMillis  Maximal deviation from the mean delay in both directions
+         * @param errorRate     Share of the requests answered with 503 Service Unavailable
+         * @param throttleRate  Share of the requests answered with 429 Too Many Requests
+         */
+        public Behaviour(long latencyMillis, long jitterMillis, double errorRate, double throttleRate) {
+            this.latencyMillis = latencyMillis;
+            this.jitterMillis = jitterMillis;
+            this.errorRate = errorRate;
+            this.throttleRate = throttleRate;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("latency %d ms ± %d ms, %.0f %% errors, %.0f %% throttled", latencyMillis, jitterMillis,
+                    errorRate * 100, throttleRate * 100);
+        }
+    }
+}
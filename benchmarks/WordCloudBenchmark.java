@@ -0,0 +1,84 @@
+package org.jabref.gui.entryeditor;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.jabref.model.entry.BibEntry;
+
+import com.kennycason.kumo.CollisionMode;
+import com.kennycason.kumo.WordCloud;
+import com.kennycason.kumo.WordFrequency;
+import com.kennycason.kumo.nlp.FrequencyAnalyzer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the word cloud of the Related articles tab: the frequency analysis of the text and the layout of the cloud.
+ * <p>
+ * The text is either the abstract of the selected entry or, if it has none, its title together with the titles of
+ * all recommendations. Both variants are covered by {@code titles}, which is the number of titles used instead of the
+ * abstract. The frequency analysis of Kumo is compared with {@link TermTokenizer} by {@code analyzer}. Run e.g. with
+ * {@code -p collisionMode=RECTANGLE -prof gc} to compare the collision modes and their allocation rates. Latency
+ * percentiles are reported by the sample mode.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"-Djava.awt.headless=true"})
+public class WordCloudBenchmark {
+
+    @Param({"300", "1500", "5000"})
+    private int abstractLength;
+
+    @Param({"0", "11"})
+    private int titles;
+
+    @Param({"PIXEL_PERFECT", "RECTANGLE"})
+    private CollisionMode collisionMode;
+
+    /** Frequency analysis to compare: Kumo's analyzer or {@link TermTokenizer} */
+    @Param({"KUMO", "TERM_TOKENIZER"})
+    private String analyzer;
+
+    private final TermTokenizer tokenizer = new TermTokenizer("en");
+    private List<String> text;
+
+    @Setup
+    public void setup() {
+        BenchmarkEntries generator = new BenchmarkEntries(42);
+        text = new ArrayList<>();
+        if (titles == 0) {
+            text.add(generator.createText(abstractLength));
+        } else {
+            for (BibEntry entry : generator.createEntries(titles, 0)) {
+                text.add(entry.getTitle().orElse(""));
+            }
+        }
+    }
+
+    @Benchmark
+    public List<WordFrequency> frequencyAnalysis() {
+        if ("KUMO".equals(analyzer)) {
+            return new FrequencyAnalyzer().load(text);
+        }
+        return WordCloudRenderer.getWordFrequencies(text, tokenizer);
+    }
+
+    @Benchmark
+    public WordCloud buildWordCloud() throws IOException {
+        return WordCloudRenderer.buildWordCloud(text, collisionMode, tokenizer);
+    }
+}
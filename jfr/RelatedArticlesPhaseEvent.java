@@ -0,0 +1,37 @@
+package org.jabref.gui.entryeditor;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event covering one phase of the Related articles tab, see {@link RelatedArticlesMetrics.Phase}.
+ * <p>
+ * Compiled separately from the rest of the tab against a JDK providing {@code jdk.jfr} (OpenJDK 8u262 and later), and
+ * only loaded by {@link RelatedArticlesMetrics} if the running JVM supports Java Flight Recorder.
+ */
+@Name("org.jabref.RelatedArticlesPhase")
+@Label("Related Articles Phase")
+@Description("Duration of a phase of fetching and displaying related articles")
+@Category({"JabRef", "Related Articles"})
+class RelatedArticlesPhaseEvent extends Event implements RelatedArticlesMetrics.PhaseEvent {
+
+    @Label("Phase")
+    String phase;
+
+    @Override
+    public void start() {
+        begin();
+    }
+
+    @Override
+    public void finish(RelatedArticlesMetrics.Phase finishedPhase) {
+        end();
+        if (shouldCommit()) {
+            phase = finishedPhase.getName();
+            commit();
+        }
+    }
+}